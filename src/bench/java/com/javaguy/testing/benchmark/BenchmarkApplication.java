@@ -0,0 +1,90 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.SpringTestsApplication;
+import com.javaguy.testing.dto.BulkImportRowDto;
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentImportService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Boots and seeds the application for benchmarks.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application. The given properties are passed as command line arguments, so they
+     * win over profile-specific files; builder properties are only defaults.
+     */
+    static ConfigurableApplicationContext start(WebApplicationType type, String[] profiles, String... properties) {
+        return new SpringApplicationBuilder(SpringTestsApplication.class)
+                .web(type)
+                .profiles(profiles)
+                .properties("logging.level.com.javaguy=WARN", "logging.level.root=WARN")
+                .run(Arrays.stream(properties)
+                        .filter(property -> !property.isBlank())
+                        .map(property -> "--" + property)
+                        .toArray(String[]::new));
+    }
+
+    static String schoolName(int i) {
+        return "School " + i;
+    }
+
+    /**
+     * Creates the schools and imports the students through the bulk importer, returning
+     * the per-row report so callers can pick ids and emails to look up.
+     */
+    static List<BulkImportRowDto> seed(ConfigurableApplicationContext context, int schools, int students) {
+        SchoolService schoolService = context.getBean(SchoolService.class);
+        StudentImportService importService = context.getBean(StudentImportService.class);
+
+        IntStream.range(0, schools).forEach(i -> schoolService.createSchool(SchoolDto.builder()
+                .name(schoolName(i))
+                .address(i + " Benchmark Road")
+                .build()));
+
+        Iterator<Supplier<StudentDto>> rows = IntStream.range(0, students)
+                .mapToObj(i -> (Supplier<StudentDto>) () -> student(i, "student" + i + "@bench.test", schoolName(i % schools)))
+                .iterator();
+        return importService.importStudents(rows).getRows();
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    static StudentDto student(int i, String email, String schoolName) {
+        return StudentDto.builder()
+                .firstname(Fixtures.firstName(i))
+                .lastname(Fixtures.lastName(i))
+                .email(email)
+                .schoolName(schoolName)
+                .build();
+    }
+}
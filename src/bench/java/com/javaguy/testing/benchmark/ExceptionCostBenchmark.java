@@ -0,0 +1,51 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.exception.StudentNotFoundException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a not-found throw and catch at the stack depth of a servlet request, for a stack
+ * capturing {@link RuntimeException} against the stackless domain exceptions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionCostBenchmark {
+
+    // A Tomcat + Spring MVC + service proxy call sits roughly 100 to 150 frames deep
+    @Param({"10", "120"})
+    private int depth;
+
+    private long id;
+
+    @Benchmark
+    public String stackCapturing() {
+        try {
+            return descend(depth, true);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String stackless() {
+        try {
+            return descend(depth, false);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private String descend(int remaining, boolean capture) {
+        if (remaining > 0) {
+            return descend(remaining - 1, capture);
+        }
+        String message = "Student not found with ID: " + id++;
+        throw capture ? new RuntimeException(message) : new StudentNotFoundException(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.javaguy.testing.benchmark;
+
+/**
+ * Deterministic sample data shared by the load tests and benchmarks.
+ */
+final class Fixtures {
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Jane", "Alice", "Bob", "Carol", "David", "Erin", "Frank", "Grace", "Heidi",
+            "Ivan", "Judy", "Mallory", "Niaj", "Olivia", "Peggy", "Rupert", "Sybil", "Trent", "Walter"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"
+    };
+
+    private Fixtures() {
+    }
+
+    static String firstName(int i) {
+        return FIRST_NAMES[i % FIRST_NAMES.length];
+    }
+
+    static String lastName(int i) {
+        return LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length] + (i / 400 == 0 ? "" : Integer.toString(i / 400));
+    }
+}
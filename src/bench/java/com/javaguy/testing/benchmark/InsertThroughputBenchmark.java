@@ -0,0 +1,125 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolRepository;
+import jakarta.persistence.EntityManager;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second persisted in one transaction: a batch of schools, and one school whose
+ * students are inserted through the {@code School.students} cascade. Scores are per row.
+ * <p>
+ * With {@code transport=tcp} the database sits behind H2's TCP server, so every statement and
+ * sequence call pays a socket round trip as it would against a real database server; in-process
+ * H2 hides most of what batching saves. {@code transport=file} runs the {@code h2file} profile
+ * against a fresh directory, so the pool and cache settings of that profile are what gets measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertThroughputBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"mem", "tcp", "file"})
+    private String transport;
+
+    private Server server;
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private SchoolRepository schoolRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long round;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        context = switch (transport) {
+            case "tcp" -> {
+                server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+                yield BenchmarkApplication.start(WebApplicationType.NONE, new String[0], "spring.datasource.url="
+                        + "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:inserts;DB_CLOSE_DELAY=-1");
+            }
+            case "file" -> {
+                directory = Files.createTempDirectory("inserts");
+                yield BenchmarkApplication.start(WebApplicationType.NONE, new String[]{"h2file"},
+                        "app.h2.directory=" + directory);
+            }
+            default -> BenchmarkApplication.start(WebApplicationType.NONE, new String[0],
+                    "spring.datasource.url=jdbc:h2:mem:inserts");
+        };
+        schoolRepository = context.getBean(SchoolRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        if (server != null) {
+            server.stop();
+        }
+        if (directory != null) {
+            BenchmarkApplication.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertSchools() {
+        long prefix = round++;
+        List<School> schools = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            schools.add(School.builder()
+                    .name("Batch " + prefix + "-" + i)
+                    .address(i + " Benchmark Road")
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            schoolRepository.saveAll(schools);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertSchoolWithStudents() {
+        long prefix = round++;
+        School school = School.builder()
+                .name("Cascade " + prefix)
+                .address("1 Cascade Road")
+                .students(new ArrayList<>(ROWS))
+                .build();
+        for (int i = 1; i < ROWS; i++) {
+            school.getStudents().add(Student.builder()
+                    .firstname(Fixtures.firstName(i))
+                    .lastname(Fixtures.lastName(i))
+                    .email("c" + prefix + "-" + i + "@bench.test")
+                    .school(school)
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            schoolRepository.save(school);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+}
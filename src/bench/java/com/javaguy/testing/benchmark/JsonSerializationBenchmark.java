@@ -0,0 +1,66 @@
+package com.javaguy.testing.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the student payloads, using the same module setup Spring Boot applies to the
+ * application's {@link ObjectMapper}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private static final TypeReference<List<StudentDto>> STUDENT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter pageWriter;
+    private StudentPageDto page;
+    private byte[] listJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pageWriter = objectMapper.writerFor(StudentPageDto.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StudentDto> students = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StudentDto student = BenchmarkApplication.student(i, "student" + i + "@bench.test",
+                    BenchmarkApplication.schoolName(i % 20));
+            student.setId((long) i);
+            student.setCreatedAt(now);
+            students.add(student);
+        }
+        page = StudentPageDto.builder().content(students).size(size).next("MTIzNDU").build();
+        listJson = objectMapper.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<StudentDto> readList() throws Exception {
+        return objectMapper.readValue(listJson, STUDENT_LIST);
+    }
+}
@@ -0,0 +1,190 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.dto.BulkImportRowDto;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application once per configuration on a random port, seeds it and hammers the
+ * student read endpoints from an embedded HTTP client, then prints throughput and latency
+ * percentiles side by side.
+ * <p>
+ * Options (all optional): {@code --configs=platform,virtual --concurrency=400 --students=20000
+ * --warmup=5 --duration=20 --only=<path regex>}. A configuration is a comma separated list of Spring profiles joined
+ * with {@code +}; {@code platform} means no extra profile. Every run gets a fresh
+ * {@code app.h2.directory}, so {@code h2file} configurations start from an empty database and their
+ * startup time includes the Flyway migrations; pool and cache settings can be swept with
+ * {@code --properties=spring.datasource.hikari.maximum-pool-size=8;app.h2.query-cache-size=128}.
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.args="--concurrency=400 --duration=30"
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.args="--configs=platform,h2file,virtual+h2file"
+ * mvn -Pbenchmarks,reactive test-compile exec:java -Dexec.args="--configs=virtual,reactive"
+ * </pre>
+ */
+public class LoadTestHarness {
+
+    private static final int SCHOOLS = 20;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        List<String> configs = List.of(options.getOrDefault("configs", "platform,virtual").split(","));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "400"));
+        int students = Integer.parseInt(options.getOrDefault("students", "20000"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+
+        List<Result> results = new ArrayList<>();
+        for (String config : configs) {
+            results.add(run(config, concurrency, students, warmup, duration, options));
+        }
+
+        System.out.printf("%n%-24s %10s %12s %10s %10s %10s %8s%n",
+                "config", "startup ms", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-24s %10d %12.0f %10.2f %10.2f %10.2f %8d%n",
+                    result.config, result.startupMillis, result.throughput,
+                    result.p50Millis, result.p99Millis, result.maxMillis, result.errors);
+        }
+    }
+
+    private static Result run(String config, int concurrency, int students, Duration warmup, Duration duration,
+                              Map<String, String> options) throws Exception {
+        String[] profiles = config.equals("platform") ? new String[0] : config.split("\\+");
+
+        Path directory = Files.createTempDirectory("load-test");
+        long start = System.nanoTime();
+        String[] properties = (options.getOrDefault("properties", "") + ";server.port=0;app.h2.directory=" + directory)
+                .split(";");
+        try (ConfigurableApplicationContext context =
+                     BenchmarkApplication.start(WebApplicationType.SERVLET, profiles, properties)) {
+            long startupMillis = (System.nanoTime() - start) / 1_000_000;
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<String> paths = seed(context, students, options.get("only"));
+
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            hammer(client, baseUrl, paths, concurrency, warmup);
+            Result result = hammer(client, baseUrl, paths, concurrency, duration);
+            result.config = config;
+            result.startupMillis = startupMillis;
+            return result;
+        } finally {
+            BenchmarkApplication.deleteRecursively(directory);
+        }
+    }
+
+    private static List<String> seed(ConfigurableApplicationContext context, int students, String only) {
+        List<BulkImportRowDto> imported = BenchmarkApplication.seed(context, SCHOOLS, students);
+
+        List<String> paths = new ArrayList<>();
+        for (BulkImportRowDto row : imported.subList(0, Math.min(500, imported.size()))) {
+            paths.add("/api/students/" + row.getId());
+            paths.add("/api/students/email/" + row.getEmail());
+        }
+        for (int i = 0; i < 50; i++) {
+            paths.add("/api/students?limit=50");
+            paths.add("/api/students/search?name=" + Fixtures.lastName(i).substring(0, 4));
+        }
+        IntStream.range(0, SCHOOLS).forEach(i ->
+                paths.add("/api/students/school/" + BenchmarkApplication.schoolName(i).replace(" ", "%20")));
+        Collections.shuffle(paths, new Random(42));
+        return only == null ? paths : paths.stream().filter(p -> p.matches(only)).toList();
+    }
+
+    private static Result hammer(HttpClient client, String baseUrl, List<String> paths, int concurrency,
+                                 Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+        int[] counts = new int[concurrency];
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    int next = worker;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(next++ % paths.size())))
+                                .GET()
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - begin;
+                    }
+                    latencies[worker] = samples;
+                    counts[worker] = count;
+                });
+            }
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int w = 0; w < concurrency; w++) {
+            System.arraycopy(latencies[w], 0, all, offset, counts[w]);
+            offset += counts[w];
+        }
+        Arrays.sort(all);
+
+        Result result = new Result();
+        result.throughput = total / (duration.toNanos() / 1e9);
+        result.p50Millis = percentile(all, 0.50);
+        result.p99Millis = percentile(all, 0.99);
+        result.maxMillis = all.length == 0 ? 0 : all[all.length - 1] / 1e6;
+        result.errors = errors.get();
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static final class Result {
+        private String config;
+        private long startupMillis;
+        private double throughput;
+        private double p50Millis;
+        private double p99Millis;
+        private double maxMillis;
+        private long errors;
+    }
+}
@@ -0,0 +1,114 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.mappers.SchoolMapper;
+import com.javaguy.testing.mappers.StudentMapper;
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Entity to DTO mapping cost for single rows and for lists of the sizes the paged, per-school and
+ * unpaged endpoints return. {@code toStudentDtoListStream} keeps the former stream and collect
+ * mapping as a reference point. Run with the GC profiler to compare allocation per operation:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@jmh -Djmh.args="MapperBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"1", "50", "500", "10000"})
+    private int size;
+
+    private final StudentMapper studentMapper = new StudentMapper();
+    private final SchoolMapper schoolMapper = new SchoolMapper();
+
+    private List<Student> students;
+    private List<SchoolSummary> summaries;
+    private StudentDto incoming;
+
+    @Setup
+    public void setUp() {
+        School school = School.builder().id(1L).name(BenchmarkApplication.schoolName(1)).build();
+        LocalDateTime now = LocalDateTime.now();
+
+        students = new ArrayList<>(size);
+        summaries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(Student.builder()
+                    .id((long) i)
+                    .firstname(Fixtures.firstName(i))
+                    .lastname(Fixtures.lastName(i))
+                    .email("student" + i + "@bench.test")
+                    .school(school)
+                    .createdAt(now)
+                    .build());
+            summaries.add(new Summary((long) i, BenchmarkApplication.schoolName(i), i + " Benchmark Road", i));
+        }
+        incoming = BenchmarkApplication.student(0, "  Student0@Bench.Test ", BenchmarkApplication.schoolName(1));
+    }
+
+    @Benchmark
+    public Student toStudent() {
+        return studentMapper.toStudent(incoming);
+    }
+
+    @Benchmark
+    public List<StudentDto> toStudentDtoList() {
+        return studentMapper.toStudentDtoList(students);
+    }
+
+    @Benchmark
+    public List<StudentDto> toStudentDtoListStream() {
+        return students.stream()
+                .map(studentMapper::toStudentDto)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<SchoolDto> toSchoolDtoList() {
+        return schoolMapper.toSchoolDtoList(summaries);
+    }
+
+    private record Summary(Long id, String name, String address, long students) implements SchoolSummary {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getAddress() {
+            return address;
+        }
+
+        @Override
+        public String getPhoneNumber() {
+            return null;
+        }
+
+        @Override
+        public Long getStudentCount() {
+            return students;
+        }
+    }
+}
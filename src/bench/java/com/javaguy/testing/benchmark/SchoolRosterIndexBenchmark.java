@@ -0,0 +1,92 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.repository.StudentSchoolId;
+import com.javaguy.testing.search.SchoolRosterIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Roster reads straight from {@link SchoolRosterIndex}, built through its regular rebuild scan over
+ * a generated stream instead of a database. The setup prints the heap retained by the index, which
+ * is the memory-per-million-students figure quoted in its documentation:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@jmh -Djmh.args="SchoolRosterIndexBenchmark"
+ * </pre>
+ * On JDK 21 with compressed oops, one million students over 20 schools retain about 8.0 MB, i.e. the
+ * 8 bytes of each id plus a few hundred bytes per school.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SchoolRosterIndexBenchmark {
+
+    @Param({"1000000"})
+    private int students;
+
+    @Param({"20"})
+    private int schools;
+
+    private SchoolRosterIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StudentRepository repository = mock(StudentRepository.class);
+        when(repository.streamSchoolIds()).thenAnswer(invocation -> LongStream.rangeClosed(1, students)
+                .mapToObj(id -> (StudentSchoolId) new Row(id, id % schools + 1)));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        index = new SchoolRosterIndex(repository, transactionManager);
+        index.rebuild();
+        // Measured by dropping the index, so the classes loaded while building it do not count
+        long withIndex = usedHeap();
+        index = null;
+        long retained = withIndex - usedHeap();
+
+        index = new SchoolRosterIndex(repository, transactionManager);
+        index.rebuild();
+
+        System.out.printf("%nSchoolRosterIndex retains %.1f MB for %d students in %d schools (%.1f MB per million)%n",
+                retained / 1e6, students, schools, retained / 1e6 * 1_000_000 / students);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private long next;
+
+        long next(int bound) {
+            next = (next + 7) % bound;
+            return next + 1;
+        }
+    }
+
+    @Benchmark
+    public int count(Cursor cursor) {
+        return index.count(cursor.next(schools));
+    }
+
+    @Benchmark
+    public long[] studentIds(Cursor cursor) {
+        return index.studentIds(cursor.next(schools));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private record Row(Long getId, Long getSchoolId) implements StudentSchoolId {
+    }
+}
@@ -0,0 +1,114 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.dto.BulkImportRowDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import com.javaguy.testing.events.OutboxDispatcher;
+import com.javaguy.testing.search.StudentEmailFilter;
+import com.javaguy.testing.service.StudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service level read paths against a seeded in-memory database, with and without the Hibernate
+ * second-level cache so the effect of the entity and natural-id caches on point lookups is
+ * measured directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentServiceReadBenchmark {
+
+    private static final int SCHOOLS = 20;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    @Param({"10000"})
+    private int students;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private Long[] ids;
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, new String[0],
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        studentService = context.getBean(StudentService.class);
+
+        List<BulkImportRowDto> rows = BenchmarkApplication.seed(context, SCHOOLS, students);
+        ids = rows.stream().map(BulkImportRowDto::getId).toArray(Long[]::new);
+        emails = rows.stream().map(BulkImportRowDto::getEmail).toArray(String[]::new);
+        // Resize the email filter for the seeded rows now rather than on its next scheduled check
+        context.getBean(StudentEmailFilter.class).maintain();
+        // Feed the seeded students to the name index without waiting for the next outbox poll
+        context.getBean(OutboxDispatcher.class).poll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(int bound) {
+            next = (next + 7919) % bound;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Optional<StudentDto> findById(Cursor cursor) {
+        return studentService.findById(ids[cursor.next(ids.length)]);
+    }
+
+    @Benchmark
+    public Optional<StudentDto> findByEmail(Cursor cursor) {
+        return studentService.findByEmail(emails[cursor.next(emails.length)]);
+    }
+
+    @Benchmark
+    public boolean existsByEmail(Cursor cursor) {
+        return studentService.existsByEmail(emails[cursor.next(emails.length)]);
+    }
+
+    // Answered by the email filter, the create path's usual case
+    @Benchmark
+    public boolean existsByUnknownEmail(Cursor cursor) {
+        return studentService.existsByEmail("unknown" + cursor.next(students) + "@bench.test");
+    }
+
+    @Benchmark
+    public StudentPageDto findFirstPage() {
+        return studentService.findPage(null, StudentService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<StudentDto> findBySchoolName(Cursor cursor) {
+        return studentService.findBySchoolName(BenchmarkApplication.schoolName(cursor.next(SCHOOLS)));
+    }
+
+    @Benchmark
+    public List<StudentDto> searchByName(Cursor cursor) {
+        return studentService.searchByName(Fixtures.lastName(cursor.next(students)).substring(0, 4), 20);
+    }
+
+    @Benchmark
+    public long countStudentsBySchool(Cursor cursor) {
+        return studentService.countStudentsBySchool((long) cursor.next(SCHOOLS) + 1);
+    }
+}
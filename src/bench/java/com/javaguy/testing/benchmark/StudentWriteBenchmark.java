@@ -0,0 +1,74 @@
+package com.javaguy.testing.benchmark;
+
+import com.javaguy.testing.dto.BulkImportResultDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.service.StudentImportService;
+import com.javaguy.testing.service.StudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Rows per second for one-by-one {@link StudentService#createStudent} calls against a chunked
+ * {@link StudentImportService} upload of the same batch. Scores are per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentWriteBenchmark {
+
+    private static final int SCHOOLS = 20;
+    private static final int BATCH = 1000;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private StudentImportService importService;
+    private List<StudentDto> batch;
+    private long round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, new String[0]);
+        studentService = context.getBean(StudentService.class);
+        importService = context.getBean(StudentImportService.class);
+        BenchmarkApplication.seed(context, SCHOOLS, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Fresh emails every invocation so no row is rejected as a duplicate
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        long prefix = round++;
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(BenchmarkApplication.student(i, "r" + prefix + "-" + i + "@bench.test",
+                    BenchmarkApplication.schoolName(i % SCHOOLS)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createOneByOne() {
+        for (StudentDto student : batch) {
+            studentService.createStudent(student);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BulkImportResultDto importInChunks() {
+        return importService.importStudents(batch.stream().map(dto -> (Supplier<StudentDto>) () -> dto).iterator());
+    }
+}
@@ -0,0 +1,74 @@
+package com.javaguy.testing.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Stands in for database replication when the primary and the replica are two local H2 databases.
+ * The replica gets the same Flyway schema plus read-only linked tables onto the primary, and every
+ * {@code app.datasource.replica.stand-in.interval} milliseconds one transaction replaces its
+ * schools and students with the primary's. Replication lag is therefore up to one interval, and
+ * each run copies the whole tables, which is fine for local load tests only.
+ */
+@Component
+@Profile("replica")
+@ConditionalOnProperty("app.datasource.replica.stand-in.enabled")
+@DependsOn("flywayInitializer")
+@Slf4j
+public class H2ReplicationStandIn {
+
+    // Parents first on insert, children first on delete
+    private static final String[] TABLES = {"schools", "students"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public H2ReplicationStandIn(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(replicaDataSource));
+
+        Flyway.configure()
+                .dataSource(replicaDataSource)
+                .load()
+                .migrate();
+        for (String table : TABLES) {
+            jdbcTemplate.execute("CREATE LINKED TABLE IF NOT EXISTS primary_" + table + "('org.h2.Driver', '"
+                    + dataSourceProperties.determineUrl() + "', '" + dataSourceProperties.determineUsername() + "', '"
+                    + nullToEmpty(dataSourceProperties.determinePassword()) + "', 'PUBLIC', '" + table.toUpperCase() + "') READONLY");
+        }
+        replicate();
+    }
+
+    @Scheduled(initialDelayString = "${app.datasource.replica.stand-in.interval:1000}",
+            fixedDelayString = "${app.datasource.replica.stand-in.interval:1000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void replicate() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = TABLES.length - 1; i >= 0; i--) {
+                jdbcTemplate.update("DELETE FROM " + TABLES[i]);
+            }
+            for (String table : TABLES) {
+                jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM primary_" + table);
+            }
+        });
+        log.debug("Replicated primary into replica in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,23 @@
+package com.javaguy.testing.config;
+
+import com.javaguy.testing.metrics.RequestQueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Hooks the per-request statement and entity load counter into the session factory.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryCounter() {
+        RequestQueryCounter counter = new RequestQueryCounter();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+            properties.put(AvailableSettings.INTERCEPTOR, counter);
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.javaguy.testing.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything
+ * else. It has to sit behind a {@link LazyConnectionDataSourceProxy}: the transaction manager asks
+ * for a connection before the read-only flag of the transaction is published, the proxy defers the
+ * physical connection to the first statement.
+ * <p>
+ * Read-your-writes is tracked per client. A request registers its client with
+ * {@link #startClient(long, LongConsumer)}, passing the time of the last write the client saw
+ * committed, and read-only transactions of that client stay on the primary until the
+ * read-your-writes window after that time has passed. The window should cover the replication lag.
+ * Times are epoch milliseconds, so a client can carry them from one instance to the next. Writes
+ * are recognized by the statements Hibernate prepares, see {@link #trackingWrites(StatementInspector)},
+ * and only count for a registered client: scheduled jobs such as the outbox drain never hold reads
+ * on the primary.
+ * <p>
+ * A read-only transaction keeps the target of its first statement to the end, and
+ * {@link #readsReplica()} tells whether the running one reads from the replica, so that what it
+ * reads stays out of the Hibernate caches, see {@link ReplicaCacheRegionFactory}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Client> CLIENT = new ThreadLocal<>();
+    // Bound to a read-only transaction with the target of its first statement
+    private static final Object READS = new Object();
+
+    private final long windowMillis;
+    // Bound to the transaction once its first write was seen
+    private final Object writeMarker = new Object();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.windowMillis = readYourWritesWindow.toMillis();
+    }
+
+    /**
+     * Registers the client of the current thread until {@link #stopClient()}; 0 means it has not
+     * written. The client's last write is capped at now, so a made-up time cannot hold its reads on
+     * the primary for longer than one window. Every write of the client that commits is reported to
+     * {@code onWrite}.
+     */
+    public static void startClient(long lastWrite, LongConsumer onWrite) {
+        long now = System.currentTimeMillis();
+        CLIENT.set(new Client(Math.clamp(lastWrite, 0, now), onWrite));
+    }
+
+    public static void stopClient() {
+        CLIENT.remove();
+    }
+
+    /**
+     * Runs the task with the client of the calling thread, for work a request hands to another
+     * thread such as a streamed response.
+     */
+    public static Runnable propagateClient(Runnable task) {
+        Client client = CLIENT.get();
+        if (client == null) {
+            return task;
+        }
+        return () -> {
+            CLIENT.set(client);
+            try {
+                task.run();
+            } finally {
+                CLIENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Returns where a read-only transaction starting now on this thread reads from: the primary
+     * while the current client is inside its read-your-writes window, the replica otherwise.
+     */
+    public Target readTarget() {
+        Client client = CLIENT.get();
+        if (client == null || System.currentTimeMillis() - client.lastWrite >= windowMillis) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        Target pinned = (Target) TransactionSynchronizationManager.getResource(READS);
+        if (pinned != null) {
+            return pinned;
+        }
+        Target target = readTarget();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin(target);
+        }
+        return target;
+    }
+
+    /**
+     * Returns whether the current transaction is read-only and reads from the replica.
+     */
+    public static boolean readsReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.getResource(READS) == Target.REPLICA;
+    }
+
+    private static void pin(Target target) {
+        TransactionSynchronizationManager.bindResource(READS, target);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(READS);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(READS, target);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(READS);
+            }
+        });
+    }
+
+    /**
+     * Records that the current transaction writes on behalf of the current client, which moves the
+     * client's last write when it commits.
+     */
+    public void markWrite() {
+        Client client = CLIENT.get();
+        if (client == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeMarker)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarker, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarker);
+                if (status == STATUS_COMMITTED) {
+                    client.wrote(System.currentTimeMillis());
+                }
+            }
+        });
+    }
+
+    /**
+     * Wraps a statement inspector so that every data modifying statement marks its transaction.
+     */
+    public StatementInspector trackingWrites(StatementInspector delegate) {
+        return sql -> {
+            if (isWrite(sql)) {
+                markWrite();
+            }
+            return delegate.inspect(sql);
+        };
+    }
+
+    static boolean isWrite(String sql) {
+        String statement = sql.stripLeading();
+        return statement.regionMatches(true, 0, "insert", 0, 6)
+                || statement.regionMatches(true, 0, "update", 0, 6)
+                || statement.regionMatches(true, 0, "delete", 0, 6)
+                || statement.regionMatches(true, 0, "merge", 0, 5);
+    }
+
+    private static final class Client {
+        private final LongConsumer onWrite;
+        private volatile long lastWrite;
+
+        Client(long lastWrite, LongConsumer onWrite) {
+            this.lastWrite = lastWrite;
+            this.onWrite = onWrite;
+        }
+
+        void wrote(long at) {
+            lastWrite = at;
+            onWrite.accept(at);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.javaguy.testing.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Registers the client of each request with {@link ReadWriteRoutingDataSource}. A request that
+ * writes gets the commit time back in {@value #LAST_WRITE_HEADER}; clients that want to read their
+ * own writes send the latest value they received along with later requests. Requests without the
+ * header read from the replica.
+ */
+@Component
+@Profile("replica")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Set when the write commits, which is before the controller starts writing the body
+        ReadWriteRoutingDataSource.startClient(lastWrite(request),
+                committedAt -> response.setHeader(LAST_WRITE_HEADER, Long.toString(committedAt)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.stopClient();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        String header = request.getHeader(LAST_WRITE_HEADER);
+        if (header != null) {
+            try {
+                return Long.parseLong(header.strip());
+            } catch (NumberFormatException e) {
+                // Not one of ours, read as if the client never wrote
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.javaguy.testing.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Splits the JDBC traffic of the {@code replica} profile over two pools: the primary from the usual
+ * {@code spring.datasource.*} properties and a read replica from {@code app.datasource.replica.*}.
+ * JPA, Flyway and everything else see a single routing {@link DataSource}, see
+ * {@link ReadWriteRoutingDataSource}; {@link ReadYourWritesFilter} ties its read-your-writes window
+ * to the client of each request.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("replica")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${app.datasource.read-your-writes-window:2s}") Duration readYourWritesWindow) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, readYourWritesWindow);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    /**
+     * Hands the client of a request on to the async threads that write streamed responses, picked
+     * up by the auto-configured task executor.
+     */
+    @Bean
+    public TaskDecorator readYourWritesClientPropagation() {
+        return ReadWriteRoutingDataSource::propagateClient;
+    }
+
+    /**
+     * Chains write detection onto the statement inspector registered by {@link MetricsConfig}.
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public HibernatePropertiesCustomizer readYourWritesTracking(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return properties -> {
+            StatementInspector delegate = properties.get(AvailableSettings.STATEMENT_INSPECTOR) instanceof StatementInspector inspector
+                    ? inspector
+                    : sql -> sql;
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, readWriteRoutingDataSource.trackingWrites(delegate));
+        };
+    }
+}
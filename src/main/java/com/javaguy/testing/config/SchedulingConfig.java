@@ -0,0 +1,29 @@
+package com.javaguy.testing.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Enables {@code @Scheduled}. The auto-configured single-threaded task scheduler drives the
+ * outbox dispatcher; jobs that scan whole tables run on {@link #MAINTENANCE_SCHEDULER} instead, so
+ * a rebuild never holds up outbox delivery.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    public static final String MAINTENANCE_SCHEDULER = "maintenanceScheduler";
+
+    // Not a default candidate, so the auto-configured taskScheduler still backs off only for
+    // schedulers of our own and stays the one unqualified @Scheduled methods run on
+    @Bean(name = MAINTENANCE_SCHEDULER, defaultCandidate = false)
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // One thread per maintenance job: the email filter rebuild and the replica stand-in
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("maintenance-");
+        return scheduler;
+    }
+}
@@ -1,57 +1,170 @@
 package com.javaguy.testing.controller;
 
-import com.javaguy.testing.exception.StudentNotFoundException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.javaguy.testing.dto.BulkImportResultDto;
+import com.javaguy.testing.dto.StudentBatchGetRequestDto;
+import com.javaguy.testing.dto.StudentBatchGetResultDto;
 import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import com.javaguy.testing.exception.StudentModifiedException;
+import com.javaguy.testing.mappers.StudentCsvMapper;
+import com.javaguy.testing.service.Revision;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentImportService;
 import com.javaguy.testing.service.StudentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/students")
 @RequiredArgsConstructor
 @Slf4j
 public class StudentController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+
     private final StudentService studentService;
+    private final SchoolService schoolService;
+    private final StudentImportService studentImportService;
+    private final StudentCsvMapper studentCsvMapper;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<StudentDto> createStudent(@Valid @RequestBody StudentDto studentDto) {
-        log.info("Request to create models: {}", studentDto.getEmail());
+        log.debug("Request to create models: {}", studentDto.getEmail());
 
         StudentDto createdStudent = studentService.createStudent(studentDto);
         return new ResponseEntity<>(createdStudent, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch-get")
+    public ResponseEntity<StudentBatchGetResultDto> batchGetStudents(@RequestBody StudentBatchGetRequestDto request) {
+        log.debug("Request to batch get students");
+
+        StudentBatchGetResultDto result = studentService.batchGet(request.getIds(), request.getEmails());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResultDto> importStudents(@RequestBody List<StudentDto> students) {
+        log.debug("Request to bulk import {} students", students.size());
+
+        Iterator<Supplier<StudentDto>> rows = students.stream()
+                .map(student -> (Supplier<StudentDto>) () -> student)
+                .iterator();
+        return ResponseEntity.ok(studentImportService.importStudents(rows));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkImportResultDto> importStudentsNdjson(InputStream body) throws IOException {
+        log.debug("Request to bulk import students from NDJSON");
+
+        ObjectReader reader = objectMapper.readerFor(StudentDto.class);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Iterator<Supplier<StudentDto>> rows = lines.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> (Supplier<StudentDto>) () -> readJsonLine(reader, line))
+                    .iterator();
+            return ResponseEntity.ok(studentImportService.importStudents(rows));
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkImportResultDto> importStudentsCsv(InputStream body) throws IOException {
+        log.debug("Request to bulk import students from CSV");
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Iterator<Supplier<StudentDto>> rows = lines.lines()
+                    .filter(line -> !line.isBlank() && !studentCsvMapper.isHeader(line))
+                    .map(line -> (Supplier<StudentDto>) () -> studentCsvMapper.fromCsvLine(line))
+                    .iterator();
+            return ResponseEntity.ok(studentImportService.importStudents(rows));
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<StudentDto> getStudentById(@PathVariable Long id) {
+    public ResponseEntity<StudentDto> getStudentById(@PathVariable Long id, WebRequest request) {
         log.debug("Request to get models by ID: {}", id);
 
-        return studentService.findById(id)
-                .map(student -> ResponseEntity.ok(student))
+        return studentService.findRevisionById(id)
+                .map(revision -> conditionalResponse(revision, request))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<StudentDto> getStudentByEmail(@PathVariable String email) {
+    public ResponseEntity<StudentDto> getStudentByEmail(@PathVariable String email, WebRequest request) {
         log.debug("Request to get models by email: {}", email);
 
-        return studentService.findByEmail(email)
-                .map(student -> ResponseEntity.ok(student))
+        return studentService.findRevisionByEmail(email)
+                .map(revision -> conditionalResponse(revision, request))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<List<StudentDto>> getAllStudents() {
-        log.debug("Request to get all students");
+    public ResponseEntity<StudentPageDto> getAllStudents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + StudentService.DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Request to get students page after cursor: {}", cursor);
 
-        List<StudentDto> students = studentService.findAll();
-        return ResponseEntity.ok(students);
+        StudentPageDto page = studentService.findPage(cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents() {
+        log.debug("Request to stream all students");
+
+        ObjectWriter json = objectMapper.writerFor(StudentDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            studentService.streamAll(student -> {
+                try {
+                    json.writeValue(writer, student);
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/school/{schoolName}")
@@ -62,36 +175,156 @@ public class StudentController {
         return ResponseEntity.ok(students);
     }
 
+    @GetMapping("/school/{schoolName}/ids")
+    public ResponseEntity<long[]> getStudentIdsBySchool(@PathVariable String schoolName) {
+        log.debug("Request to get student ids by school: {}", schoolName);
+
+        return ResponseEntity.ok(studentService.findStudentIdsBySchoolName(schoolName));
+    }
+
+    /**
+     * Streams the roster of one school as NDJSON (default) or CSV straight from a database cursor,
+     * so memory stays flat however large the school is. The body is gzipped on the fly when the
+     * client accepts it. An unknown school is rejected with 404 before the response is committed.
+     */
+    @GetMapping("/school/{schoolName}/export")
+    public ResponseEntity<StreamingResponseBody> exportStudentsBySchool(
+            @PathVariable String schoolName,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("Request to export students of school: {} as {}", schoolName, format);
+
+        boolean csv = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "ndjson" -> false;
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+        schoolService.findByName(schoolName);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        ObjectWriter json = objectMapper.writerFor(StudentDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            if (csv) {
+                writer.write(StudentCsvMapper.EXPORT_HEADER);
+                writer.write("\r\n");
+            }
+            studentService.streamBySchoolName(schoolName, student -> {
+                try {
+                    if (csv) {
+                        writer.write(studentCsvMapper.toCsvLine(student));
+                        writer.write("\r\n");
+                    } else {
+                        json.writeValue(writer, student);
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            if (out instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+        };
+
+        String filename = schoolName + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .headers(headers -> {
+                    if (gzip) {
+                        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                })
+                .body(body);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<StudentDto>> searchStudents(@RequestParam String name) {
+    public ResponseEntity<List<StudentDto>> searchStudents(@RequestParam String name,
+                                                           @RequestParam(defaultValue = "20") int limit) {
         log.debug("Request to search students by name: {}", name);
 
-        List<StudentDto> students = studentService.searchByName(name);
+        List<StudentDto> students = studentService.searchByName(name, limit);
         return ResponseEntity.ok(students);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<StudentDto> updateStudent(@PathVariable Long id,
-                                                    @Valid @RequestBody StudentDto studentDto) {
-        log.info("Request to update models with ID: {}", id);
+                                                    @Valid @RequestBody StudentDto studentDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Request to update models with ID: {}", id);
 
-        try {
-            StudentDto updatedStudent = studentService.updateStudent(id, studentDto);
-            return ResponseEntity.ok(updatedStudent);
-        } catch (StudentNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        }
+        Revision<StudentDto> updated = studentService.updateStudent(id, studentDto, expectedVersion(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(updated.etag())
+                .lastModified(updated.lastModified())
+                .body(updated.body().get());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteStudent(@PathVariable Long id) {
-        log.info("Request to delete models with ID: {}", id);
+        log.debug("Request to delete models with ID: {}", id);
+
+        studentService.deleteStudent(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Answers 304 without mapping or serializing anything when the client's validators match.
+     * {@link WebRequest#checkNotModified} writes the ETag and Last-Modified headers either way.
+     */
+    private static ResponseEntity<StudentDto> conditionalResponse(Revision<StudentDto> revision, WebRequest request) {
+        long lastModified = revision.lastModified() != null ? revision.lastModified().toEpochMilli() : -1;
+        if (request.checkNotModified(revision.etag(), lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(revision.body().get());
+    }
+
+    // If-Match carries the ETag of a previous read, "<id>.<version>"; "*" matches any version
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim().replace("\"", "");
+        String prefix = id + ".";
+        if (!tag.startsWith(prefix)) {
+            throw new StudentModifiedException("If-Match " + ifMatch + " does not match student with ID: " + id);
+        }
+        try {
+            return Long.parseLong(tag.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new StudentModifiedException("If-Match " + ifMatch + " does not match student with ID: " + id);
+        }
+    }
+
+    // Honours an explicit "gzip;q=0" refusal, other quality values are treated as acceptance
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 
+    private static StudentDto readJsonLine(ObjectReader reader, String line) {
         try {
-            studentService.deleteStudent(id);
-            return ResponseEntity.noContent().build();
-        } catch (StudentNotFoundException e) {
-            return ResponseEntity.notFound().build();
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
         }
     }
 }
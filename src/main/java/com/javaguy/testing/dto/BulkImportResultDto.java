@@ -0,0 +1,23 @@
+package com.javaguy.testing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDto {
+
+    private int total;
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BulkImportRowDto> rows;
+}
@@ -0,0 +1,29 @@
+package com.javaguy.testing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportRowDto {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    // 1-based position of the row in the uploaded payload
+    private int row;
+
+    private String email;
+
+    private Status status;
+
+    private Long id;
+
+    private String error;
+}
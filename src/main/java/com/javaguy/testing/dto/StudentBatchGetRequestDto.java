@@ -0,0 +1,19 @@
+package com.javaguy.testing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentBatchGetRequestDto {
+
+    private List<Long> ids;
+
+    private List<String> emails;
+}
@@ -0,0 +1,22 @@
+package com.javaguy.testing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentBatchGetResultDto {
+
+    // Students found by id, then by email, each in request order and without duplicates
+    private List<StudentDto> students;
+
+    private List<Long> missingIds;
+
+    private List<String> missingEmails;
+}
@@ -0,0 +1,23 @@
+package com.javaguy.testing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPageDto {
+
+    private List<StudentDto> content;
+
+    private int size;
+
+    // Opaque keyset cursor for the following page, null on the last page. Pages are in id order,
+    // not creation order
+    private String next;
+}
@@ -0,0 +1,26 @@
+package com.javaguy.testing.events;
+
+import com.javaguy.testing.models.OutboxEvent;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+
+import java.time.Instant;
+
+/**
+ * Committed change to a student or school as seen by a {@link ChangeEventSubscriber}.
+ * <p>
+ * {@code aggregateKey} is null for deletes by id. Deleting a school removes its students without
+ * an event per student.
+ */
+public record ChangeEvent(long id,
+                          AggregateType aggregateType,
+                          Long aggregateId,
+                          String aggregateKey,
+                          EventType type,
+                          Instant occurredAt) {
+
+    static ChangeEvent from(OutboxEvent event) {
+        return new ChangeEvent(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getAggregateKey(), event.getEventType(), event.getCreatedAt());
+    }
+}
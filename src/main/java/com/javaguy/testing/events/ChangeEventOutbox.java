@@ -0,0 +1,84 @@
+package com.javaguy.testing.events;
+
+import com.javaguy.testing.models.OutboxEvent;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+import com.javaguy.testing.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Appends change events to the outbox table. Callers must already be in the write transaction:
+ * the event commits or rolls back together with the change, and the insert joins the same JDBC
+ * batch at flush.
+ * <p>
+ * Event ids are handed out when the event is persisted, not when it commits, so a higher id can
+ * commit first. The ids of events whose transaction is still open are tracked here, and the
+ * dispatcher only delivers below the lowest of them, see {@link #deliverableBefore()}. That makes
+ * delivery follow commit order on the single application instance this is built for.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class ChangeEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    // Held while an id is handed out and registered, so a snapshot never misses an allocated id
+    private final Object allocation = new Object();
+    // Per-transaction list of appended ids
+    private final Object transactionKey = new Object();
+
+    public void append(AggregateType aggregateType, Long aggregateId, String aggregateKey, EventType type) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .aggregateKey(aggregateKey)
+                .eventType(type)
+                .build();
+        List<Long> appended = appendedInTransaction();
+        synchronized (allocation) {
+            outboxEventRepository.save(event);
+            inFlight.add(event.getId());
+        }
+        appended.add(event.getId());
+    }
+
+    /**
+     * Returns the id below which every event is either committed or gone for good.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long deliverableBefore() {
+        synchronized (allocation) {
+            return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> appendedInTransaction() {
+        List<Long> appended = (List<Long>) TransactionSynchronizationManager.getResource(transactionKey);
+        if (appended == null) {
+            List<Long> ids = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(transactionKey, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                    ids.forEach(inFlight::remove);
+                }
+            });
+            appended = ids;
+        }
+        return appended;
+    }
+}
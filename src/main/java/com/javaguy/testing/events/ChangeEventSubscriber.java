@@ -0,0 +1,16 @@
+package com.javaguy.testing.events;
+
+import java.util.List;
+
+/**
+ * In-process consumer of committed changes. Every subscriber bean receives the events in commit
+ * order on the dispatcher thread, so it should hand slow work off rather than block.
+ * <p>
+ * A subscriber that throws gets the same events again after {@code app.outbox.retry-delay}, the
+ * others keep going meanwhile. Delivery is at least once: after a restart, events not yet
+ * delivered to every subscriber are delivered to all of them again.
+ */
+public interface ChangeEventSubscriber {
+
+    void onEvents(List<ChangeEvent> events);
+}
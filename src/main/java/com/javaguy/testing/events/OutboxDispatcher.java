@@ -0,0 +1,169 @@
+package com.javaguy.testing.events;
+
+import com.javaguy.testing.models.OutboxEvent;
+import com.javaguy.testing.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the outbox in batches of up to {@code app.outbox.batch-size} events and hands them to
+ * every {@link ChangeEventSubscriber} bean in commit order: events are only read below
+ * {@link ChangeEventOutbox#deliverableBefore()}.
+ * <p>
+ * Each subscriber has its own position in the outbox. A subscriber that fails keeps its position
+ * and is retried after {@code app.outbox.retry-delay}, so its events stay in the table while the
+ * other subscribers move on. Rows are deleted once every subscriber is past them. Positions live
+ * in memory; after a restart the remaining rows are delivered again.
+ * <p>
+ * Runs on the scheduler thread every {@code app.outbox.poll-interval} milliseconds and keeps going
+ * while batches come back full. Meant for one application instance per database.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ChangeEventOutbox changeEventOutbox;
+    private final List<Delivery> deliveries;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long retryDelayNanos;
+    private final DistributionSummary batchSizes;
+
+    private long deletedUpTo;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ChangeEventOutbox changeEventOutbox,
+                            ObjectProvider<ChangeEventSubscriber> subscribers,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.outbox.batch-size:500}") int batchSize,
+                            @Value("${app.outbox.retry-delay:5s}") Duration retryDelay) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.changeEventOutbox = changeEventOutbox;
+        this.deliveries = subscribers.orderedStream()
+                .map(subscriber -> new Delivery(subscriber, meterRegistry))
+                .toList();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryDelayNanos = retryDelay.toNanos();
+        this.batchSizes = DistributionSummary.builder("outbox.dispatch.batch.size")
+                .description("Change events read from the outbox per batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.poll-interval:200}", fixedDelayString = "${app.outbox.poll-interval:200}")
+    public void poll() {
+        try {
+            while (dispatch() == batchSize) {
+                // Behind: keep draining without waiting for the next tick
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox dispatch failed, retrying on the next poll: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delivers one batch to every subscriber that is due and returns the size of the largest batch
+     * read.
+     */
+    public synchronized int dispatch() {
+        // Taken before reading, so rows committed meanwhile cannot overtake a lower open id
+        long before = changeEventOutbox.deliverableBefore();
+
+        Integer read = transactionTemplate.execute(status -> {
+            Map<Long, List<ChangeEvent>> batches = new HashMap<>();
+            long now = System.nanoTime();
+            for (Delivery delivery : deliveries) {
+                if (delivery.failing && now - delivery.retryAt < 0) {
+                    continue;
+                }
+                List<ChangeEvent> events = batches.computeIfAbsent(delivery.position, after -> read(after, before));
+                if (!events.isEmpty()) {
+                    delivery.deliver(events, now);
+                }
+            }
+
+            long delivered;
+            if (deliveries.isEmpty()) {
+                List<ChangeEvent> events = batches.computeIfAbsent(deletedUpTo, after -> read(after, before));
+                delivered = events.isEmpty() ? deletedUpTo : events.get(events.size() - 1).id();
+            } else {
+                delivered = deliveries.stream().mapToLong(delivery -> delivery.position).min().getAsLong();
+            }
+            if (delivered > deletedUpTo) {
+                outboxEventRepository.deleteUpTo(delivered);
+                deletedUpTo = delivered;
+            }
+            return batches.values().stream().mapToInt(List::size).max().orElse(0);
+        });
+        return read != null ? read : 0;
+    }
+
+    private List<ChangeEvent> read(long after, long before) {
+        List<OutboxEvent> rows = outboxEventRepository.findBetween(after, before, Limit.of(batchSize));
+        if (!rows.isEmpty()) {
+            batchSizes.record(rows.size());
+        }
+        return rows.stream().map(ChangeEvent::from).toList();
+    }
+
+    private final class Delivery {
+        private final ChangeEventSubscriber subscriber;
+        private final String name;
+        private final Timer lag;
+        private final Counter failures;
+
+        private long position;
+        private boolean failing;
+        private long retryAt;
+
+        Delivery(ChangeEventSubscriber subscriber, MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.name = subscriber.getClass().getSimpleName();
+            this.lag = Timer.builder("outbox.delivery.lag")
+                    .tag("subscriber", name)
+                    .description("Time from the write to the delivery of its change event")
+                    .register(meterRegistry);
+            this.failures = Counter.builder("outbox.subscriber.failures")
+                    .tag("subscriber", name)
+                    .description("Batches a subscriber failed on, each is retried")
+                    .register(meterRegistry);
+        }
+
+        void deliver(List<ChangeEvent> events, long now) {
+            try {
+                subscriber.onEvents(events);
+            } catch (RuntimeException e) {
+                log.error("Change event subscriber {} failed on {} events, retrying in {} ms", name, events.size(),
+                        retryDelayNanos / 1_000_000, e);
+                failures.increment();
+                failing = true;
+                retryAt = now + retryDelayNanos;
+                return;
+            }
+            failing = false;
+            position = events.get(events.size() - 1).id();
+            Instant deliveredAt = Instant.now();
+            for (ChangeEvent event : events) {
+                lag.record(Duration.between(event.occurredAt(), deliveredAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.javaguy.testing.exception;
+
+/**
+ * Base class of the domain exceptions. These are thrown on ordinary traffic (unknown ids,
+ * duplicate emails) and always translated into a response by {@link GlobalExceptionHandler},
+ * so they skip stack trace capture and suppression bookkeeping, which dominate the cost of a throw.
+ */
+public abstract class ApplicationException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected ApplicationException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
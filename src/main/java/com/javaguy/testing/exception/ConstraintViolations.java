@@ -0,0 +1,23 @@
+package com.javaguy.testing.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which named constraint an integrity violation broke. Hibernate extracts the name where the
+ * dialect supports it, otherwise the driver message is searched for it.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        String detail = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : e.getMostSpecificCause().getMessage();
+        return detail != null && detail.toLowerCase(Locale.ROOT).contains(constraintName);
+    }
+}
@@ -0,0 +1,31 @@
+package com.javaguy.testing.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable, machine readable codes for the expected failures of the API.
+ */
+public enum ErrorCode {
+
+    STUDENT_NOT_FOUND(HttpStatus.NOT_FOUND, "Student Not Found"),
+    STUDENT_ALREADY_EXISTS(HttpStatus.CONFLICT, "Student Already Exists"),
+    STUDENT_MODIFIED(HttpStatus.PRECONDITION_FAILED, "Student Modified"),
+    SCHOOL_NOT_FOUND(HttpStatus.NOT_FOUND, "School Not Found"),
+    SCHOOL_ALREADY_EXISTS(HttpStatus.CONFLICT, "School Already Exists");
+
+    private final HttpStatus status;
+    private final String error;
+
+    ErrorCode(HttpStatus status, String error) {
+        this.status = status;
+        this.error = error;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -2,14 +2,19 @@ package com.javaguy.testing.exception;
 
 import com.javaguy.testing.dto.ErrorResponse;
 import com.javaguy.testing.dto.ValidationErrorResponse;
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,29 +23,61 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(StudentNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleStudentNotFoundException(StudentNotFoundException ex) {
-        log.error("Student not found: {}", ex.getMessage());
+    // Expected client errors: one WARN per kind and second, the rest only at DEBUG
+    private final RateLimitedLog clientErrorLog = new RateLimitedLog(Duration.ofSeconds(1));
+
+    @ExceptionHandler(ApplicationException.class)
+    public ResponseEntity<ErrorResponse> handleApplicationException(ApplicationException ex) {
+        ErrorCode errorCode = ex.getErrorCode();
+        logClientError(errorCode.name(), ex.getMessage());
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error("Student Not Found")
+                .status(errorCode.getStatus().value())
+                .error(errorCode.getError())
+                .code(errorCode.name())
                 .message(ex.getMessage())
                 .build();
 
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(errorResponse, errorCode.getStatus());
+    }
+
+    /**
+     * Only the unique constraints behind the natural ids are client conflicts, e.g. two requests
+     * racing to create the same school. Foreign key, not null or length violations are bugs and
+     * end up as a 500.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        ErrorCode errorCode = ConstraintViolations.violates(ex, Student.EMAIL_UNIQUE_CONSTRAINT) ? ErrorCode.STUDENT_ALREADY_EXISTS
+                : ConstraintViolations.violates(ex, School.NAME_UNIQUE_CONSTRAINT) ? ErrorCode.SCHOOL_ALREADY_EXISTS
+                : null;
+        if (errorCode == null) {
+            return handleGenericException(ex);
+        }
+        logClientError(errorCode.name(), ex.getMostSpecificCause().getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(errorCode.getStatus().value())
+                .error(errorCode.getError())
+                .code(errorCode.name())
+                .message("The request conflicts with existing data")
+                .build();
+
+        return new ResponseEntity<>(errorResponse, errorCode.getStatus());
     }
 
-    @ExceptionHandler(StudentAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleStudentAlreadyExistsException(StudentAlreadyExistsException ex) {
-        log.error("Student already exists: {}", ex.getMessage());
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        logClientError("CONCURRENT_MODIFICATION", ex.getMessage());
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.CONFLICT.value())
-                .error("Student Already Exists")
-                .message(ex.getMessage())
+                .error("Conflict")
+                .code("CONCURRENT_MODIFICATION")
+                .message("The resource was modified concurrently, reload it and retry")
                 .build();
 
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
@@ -48,7 +85,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        log.error("Validation error: {}", ex.getMessage());
+        logClientError("VALIDATION_FAILED", ex.getMessage());
 
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -70,12 +107,13 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
-        log.error("Illegal argument: {}", ex.getMessage());
+        logClientError("BAD_REQUEST", ex.getMessage());
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.BAD_REQUEST.value())
                 .error("Bad Request")
+                .code("BAD_REQUEST")
                 .message(ex.getMessage())
                 .build();
 
@@ -95,5 +133,13 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
 
+    private void logClientError(String kind, String message) {
+        long suppressed = clientErrorLog.tryAcquire(kind);
+        if (suppressed != RateLimitedLog.SUPPRESSED) {
+            log.warn("{}: {} ({} similar since last report)", kind, message, suppressed);
+        } else {
+            log.debug("{}: {}", kind, message);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.javaguy.testing.exception;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets one log line per key through every interval and counts the ones it holds back, so a burst
+ * of identical client errors costs a counter increment instead of a formatted log line each.
+ */
+final class RateLimitedLog {
+
+    static final long SUPPRESSED = -1;
+
+    private final long intervalNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    RateLimitedLog(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Returns the number of lines suppressed since the previous permitted one when this line
+     * may be logged, or {@link #SUPPRESSED} when it should be dropped.
+     */
+    long tryAcquire(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.nanoTime();
+        long next = window.nextAllowed.get();
+        if (now - next >= 0 && window.nextAllowed.compareAndSet(next, now + intervalNanos)) {
+            return window.suppressed.sumThenReset();
+        }
+        window.suppressed.increment();
+        return SUPPRESSED;
+    }
+
+    private static final class Window {
+        private final AtomicLong nextAllowed = new AtomicLong(System.nanoTime());
+        private final LongAdder suppressed = new LongAdder();
+    }
+}
@@ -1,7 +1,7 @@
 package com.javaguy.testing.exception;
 
-public class SchoolAlreadyExistsException extends RuntimeException {
+public class SchoolAlreadyExistsException extends ApplicationException {
     public SchoolAlreadyExistsException(String message) {
-        super(message);
+        super(ErrorCode.SCHOOL_ALREADY_EXISTS, message);
     }
 }
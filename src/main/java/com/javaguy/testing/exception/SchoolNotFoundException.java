@@ -1,7 +1,7 @@
 package com.javaguy.testing.exception;
 
-public class SchoolNotFoundException extends RuntimeException {
+public class SchoolNotFoundException extends ApplicationException {
     public SchoolNotFoundException(String message) {
-        super(message);
+        super(ErrorCode.SCHOOL_NOT_FOUND, message);
     }
 }
@@ -1,7 +1,7 @@
 package com.javaguy.testing.exception;
 
-public class StudentAlreadyExistsException extends RuntimeException {
+public class StudentAlreadyExistsException extends ApplicationException {
     public StudentAlreadyExistsException(String message) {
-        super(message);
+        super(ErrorCode.STUDENT_ALREADY_EXISTS, message);
     }
 }
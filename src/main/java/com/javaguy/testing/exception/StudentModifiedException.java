@@ -0,0 +1,7 @@
+package com.javaguy.testing.exception;
+
+public class StudentModifiedException extends ApplicationException {
+    public StudentModifiedException(String message) {
+        super(ErrorCode.STUDENT_MODIFIED, message);
+    }
+}
@@ -1,7 +1,7 @@
 package com.javaguy.testing.exception;
 
-public class StudentNotFoundException extends RuntimeException {
+public class StudentNotFoundException extends ApplicationException {
     public StudentNotFoundException(String message) {
-        super(message);
+        super(ErrorCode.STUDENT_NOT_FOUND, message);
     }
 }
@@ -2,10 +2,11 @@ package com.javaguy.testing.mappers;
 
 import com.javaguy.testing.models.School;
 import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.repository.SchoolSummary;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class SchoolMapper {
@@ -23,7 +24,7 @@ public class SchoolMapper {
                 .build();
     }
 
-    public SchoolDto toSchoolDto(School school) {
+    public SchoolDto toSchoolDto(School school, long studentCount) {
         if (school == null) {
             throw new IllegalArgumentException("School cannot be null");
         }
@@ -33,17 +34,33 @@ public class SchoolMapper {
                 .name(school.getName())
                 .address(school.getAddress())
                 .phoneNumber(school.getPhoneNumber())
-                .studentCount(school.getStudents() != null ? school.getStudents().size() : 0)
+                .studentCount(Math.toIntExact(studentCount))
                 .build();
     }
 
-    public List<SchoolDto> toSchoolDtoList(List<School> schools) {
+    public SchoolDto toSchoolDto(SchoolSummary summary) {
+        if (summary == null) {
+            throw new IllegalArgumentException("SchoolSummary cannot be null");
+        }
+
+        return SchoolDto.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .address(summary.getAddress())
+                .phoneNumber(summary.getPhoneNumber())
+                .studentCount(Math.toIntExact(summary.getStudentCount()))
+                .build();
+    }
+
+    public List<SchoolDto> toSchoolDtoList(List<SchoolSummary> schools) {
         if (schools == null) {
             return List.of();
         }
 
-        return schools.stream()
-                .map(this::toSchoolDto)
-                .collect(Collectors.toList());
+        List<SchoolDto> dtos = new ArrayList<>(schools.size());
+        for (SchoolSummary school : schools) {
+            dtos.add(toSchoolDto(school));
+        }
+        return dtos;
     }
 }
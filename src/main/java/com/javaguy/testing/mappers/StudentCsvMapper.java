@@ -0,0 +1,99 @@
+package com.javaguy.testing.mappers;
+
+import com.javaguy.testing.dto.StudentDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class StudentCsvMapper {
+
+    public static final String HEADER = "firstname,lastname,email,school_name";
+
+    public static final String EXPORT_HEADER = "id,firstname,lastname,email,school_name,created_at";
+
+    private static final int COLUMNS = 4;
+
+    public boolean isHeader(String line) {
+        return line != null && HEADER.equalsIgnoreCase(line.replace(" ", ""));
+    }
+
+    public StudentDto fromCsvLine(String line) {
+        if (line == null) {
+            throw new IllegalArgumentException("CSV line cannot be null");
+        }
+
+        List<String> values = split(line);
+        if (values.size() != COLUMNS) {
+            throw new IllegalArgumentException("Expected " + COLUMNS + " columns (" + HEADER + ") but found " + values.size());
+        }
+
+        return StudentDto.builder()
+                .firstname(values.get(0))
+                .lastname(values.get(1))
+                .email(values.get(2))
+                .schoolName(values.get(3))
+                .build();
+    }
+
+    public String toCsvLine(StudentDto dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("StudentDto cannot be null");
+        }
+
+        StringBuilder line = new StringBuilder(96);
+        appendValue(line, dto.getId() != null ? dto.getId().toString() : null).append(',');
+        appendValue(line, dto.getFirstname()).append(',');
+        appendValue(line, dto.getLastname()).append(',');
+        appendValue(line, dto.getEmail()).append(',');
+        appendValue(line, dto.getSchoolName()).append(',');
+        appendValue(line, dto.getCreatedAt() != null ? dto.getCreatedAt().toString() : null);
+        return line.toString();
+    }
+
+    // Quotes only values that need it, doubling embedded quotes
+    private StringBuilder appendValue(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    // RFC 4180 style splitting: commas inside double quotes are kept, "" is an escaped quote
+    private List<String> split(String line) {
+        List<String> values = new ArrayList<>(COLUMNS);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
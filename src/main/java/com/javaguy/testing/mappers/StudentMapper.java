@@ -5,8 +5,9 @@ import com.javaguy.testing.models.Student;
 import com.javaguy.testing.dto.StudentDto;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @Component
 public class StudentMapper {
@@ -16,11 +17,10 @@ public class StudentMapper {
             throw new IllegalArgumentException("StudentDto cannot be null");
         }
 
-        validateStudentDto(dto);
         var student = Student.builder()
-                .firstname(dto.getFirstname().trim())
-                .lastname(dto.getLastname().trim())
-                .email(dto.getEmail().toLowerCase().trim())
+                .firstname(normalizeName(dto.getFirstname(), "Firstname cannot be null or empty"))
+                .lastname(normalizeName(dto.getLastname(), "Lastname cannot be null or empty"))
+                .email(normalizeEmail(dto.getEmail()))
                 .build();
         var school = dto.getSchoolName() != null ?
                 School.builder().name(dto.getSchoolName().trim()).build() : null;
@@ -48,9 +48,11 @@ public class StudentMapper {
             return List.of();
         }
 
-        return students.stream()
-                .map(this::toStudentDto)
-                .collect(Collectors.toList());
+        List<StudentDto> dtos = new ArrayList<>(students.size());
+        for (Student student : students) {
+            dtos.add(toStudentDto(student));
+        }
+        return dtos;
     }
 
     public void updateStudentFromDto(StudentDto dto, Student student) {
@@ -58,36 +60,32 @@ public class StudentMapper {
             throw new IllegalArgumentException("StudentDto and Student cannot be null");
         }
 
-        validateStudentDto(dto);
+        // Validate everything before touching the managed entity
+        String firstname = normalizeName(dto.getFirstname(), "Firstname cannot be null or empty");
+        String lastname = normalizeName(dto.getLastname(), "Lastname cannot be null or empty");
+        String email = normalizeEmail(dto.getEmail());
 
-        if (dto.getFirstname() != null) {
-            student.setFirstname(dto.getFirstname().trim());
-        }
-        if (dto.getLastname() != null) {
-            student.setLastname(dto.getLastname().trim());
-        }
-        if (dto.getEmail() != null) {
-            student.setEmail(dto.getEmail().toLowerCase().trim());
-        }
+        student.setFirstname(firstname);
+        student.setLastname(lastname);
+        student.setEmail(email);
     }
 
-    private void validateStudentDto(StudentDto dto) {
-        if (dto.getFirstname() == null || dto.getFirstname().trim().isEmpty()) {
-            throw new IllegalArgumentException("Firstname cannot be null or empty");
-        }
-        if (dto.getLastname() == null || dto.getLastname().trim().isEmpty()) {
-            throw new IllegalArgumentException("Lastname cannot be null or empty");
-        }
-        if (dto.getEmail() == null || !isValidEmail(dto.getEmail())) {
-            throw new IllegalArgumentException("Email must be valid");
+    // Each value is trimmed once and validated on the trimmed result. trim() and toLowerCase()
+    // return the same instance when there is nothing to change, so clean input allocates nothing.
+    private static String normalizeName(String value, String message) {
+        String trimmed = value != null ? value.trim() : "";
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException(message);
         }
+        return trimmed;
     }
 
-    private boolean isValidEmail(String email) {
-        return email != null &&
-                !email.trim().isEmpty() &&
-                email.contains("@") &&
-                email.contains(".") &&
-                email.indexOf("@") < email.lastIndexOf(".");
+    private static String normalizeEmail(String value) {
+        String email = value != null ? value.trim() : "";
+        int at = email.indexOf('@');
+        if (at < 0 || email.lastIndexOf('.') <= at) {
+            throw new IllegalArgumentException("Email must be valid");
+        }
+        return email.toLowerCase(Locale.ROOT);
     }
 }
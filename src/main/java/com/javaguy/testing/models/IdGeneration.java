@@ -0,0 +1,19 @@
+package com.javaguy.testing.models;
+
+/**
+ * Shared settings of the pooled sequence generators. Hibernate reserves
+ * {@value #ALLOCATION_SIZE} ids per sequence call, so inserts need no round trip for their keys
+ * and can be batched. Keep it in line with {@code hibernate.jdbc.batch_size}.
+ * <p>
+ * The mapping value is only the default: with
+ * {@code hibernate.id.sequence.increment_size_mismatch_strategy=fix} the {@code INCREMENT BY}
+ * of an existing database sequence takes precedence, so the allocation size can be changed with
+ * a schema migration alone.
+ */
+public final class IdGeneration {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGeneration() {
+    }
+}
@@ -5,21 +5,34 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.util.List;
 
 @Entity
-@Table(name = "schools")
+@Table(name = "schools",
+        uniqueConstraints = @UniqueConstraint(name = School.NAME_UNIQUE_CONSTRAINT, columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "schools")
+@NaturalIdCache(region = "schools-natural-id")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class School {
 
+    public static final String NAME_UNIQUE_CONSTRAINT = "uk_schools_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "schools_seq")
+    @SequenceGenerator(name = "schools_seq", sequenceName = "schools_seq", allocationSize = IdGeneration.ALLOCATION_SIZE)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @NaturalId
+    @Column(nullable = false)
     private String name;
 
     @Column(nullable = false)
@@ -28,6 +41,9 @@ public class School {
     @Column(name = "phone_number")
     private String phoneNumber;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "school", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Student> students;
 }
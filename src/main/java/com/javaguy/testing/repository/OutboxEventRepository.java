@@ -0,0 +1,23 @@
+package com.javaguy.testing.repository;
+
+import com.javaguy.testing.models.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :after AND e.id < :before ORDER BY e.id")
+    List<OutboxEvent> findBetween(@Param("after") long after, @Param("before") long before, Limit limit);
+
+    // Only called below ChangeEventOutbox#deliverableBefore(), where no transaction can still add rows
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :id")
+    int deleteUpTo(@Param("id") long id);
+}
@@ -1,16 +1,42 @@
 package com.javaguy.testing.repository;
 
 import com.javaguy.testing.models.School;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
-public interface SchoolRepository extends JpaRepository<School, Long> {
+public interface SchoolRepository extends JpaRepository<School, Long>, SchoolRepositoryCustom {
+
+    String SUMMARY_SELECT = "SELECT sc.id AS id, sc.name AS name, sc.address AS address, " +
+            "sc.phoneNumber AS phoneNumber, COUNT(s.id) AS studentCount " +
+            "FROM School sc LEFT JOIN sc.students s ";
+
+    String SUMMARY_GROUP_BY = " GROUP BY sc.id, sc.name, sc.address, sc.phoneNumber";
 
     Optional<School> findByName(String name);
 
+    List<School> findByNameIn(Collection<String> names);
+
     boolean existsByName(String name);
-}
 
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY + " ORDER BY sc.id")
+    List<SchoolSummary> findAllSummaries();
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT + "WHERE sc.id = :id" + SUMMARY_GROUP_BY)
+    Optional<SchoolSummary> findSummaryById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT + "WHERE sc.name = :name" + SUMMARY_GROUP_BY)
+    Optional<SchoolSummary> findSummaryByName(@Param("name") String name);
+}
@@ -0,0 +1,14 @@
+package com.javaguy.testing.repository;
+
+import com.javaguy.testing.models.School;
+
+import java.util.Optional;
+
+public interface SchoolRepositoryCustom {
+
+    /**
+     * Loads a school by its name natural id, served from the natural-id and entity
+     * caches when both are warm.
+     */
+    Optional<School> findCachedByName(String name);
+}
@@ -0,0 +1,21 @@
+package com.javaguy.testing.repository;
+
+import com.javaguy.testing.models.School;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class SchoolRepositoryCustomImpl implements SchoolRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<School> findCachedByName(String name) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(School.class)
+                .loadOptional(name);
+    }
+}
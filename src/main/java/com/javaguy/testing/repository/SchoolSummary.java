@@ -0,0 +1,18 @@
+package com.javaguy.testing.repository;
+
+/**
+ * Read-only view of a school together with its student count, aggregated in the query
+ * so the lazy students collection never has to be initialized.
+ */
+public interface SchoolSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getAddress();
+
+    String getPhoneNumber();
+
+    Long getStudentCount();
+}
@@ -0,0 +1,13 @@
+package com.javaguy.testing.repository;
+
+/**
+ * Minimal view of a student used to build the in-memory name index.
+ */
+public interface StudentName {
+
+    Long getId();
+
+    String getFirstname();
+
+    String getLastname();
+}
@@ -1,30 +1,107 @@
 package com.javaguy.testing.repository;
 
 import com.javaguy.testing.models.Student;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentRepositoryCustom {
 
     Optional<Student> findByEmail(String email);
 
-    @Query("SELECT s FROM Student s WHERE s.school.name = :schoolName")
+    @Override
+    @EntityGraph(attributePaths = "school")
+    List<Student> findAll();
+
+    @Query("SELECT s FROM Student s JOIN FETCH s.school WHERE s.id > :afterId ORDER BY s.id")
+    List<Student> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Student s JOIN FETCH s.school ORDER BY s.id")
+    Stream<Student> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Student s JOIN FETCH s.school sc WHERE sc.name = :schoolName ORDER BY s.id")
+    Stream<Student> streamBySchoolName(@Param("schoolName") String schoolName);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.id AS id, s.firstname AS firstname, s.lastname AS lastname FROM Student s")
+    Stream<StudentName> streamNames();
+
+    @Query("SELECT s.id AS id, s.firstname AS firstname, s.lastname AS lastname FROM Student s WHERE s.id IN :ids")
+    List<StudentName> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.id AS id, s.school.id AS schoolId FROM Student s ORDER BY s.id")
+    Stream<StudentSchoolId> streamSchoolIds();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.email FROM Student s")
+    Stream<String> streamEmails();
+
+    @Query("SELECT s.id FROM Student s WHERE s.school.id = :schoolId ORDER BY s.id")
+    List<Long> findIdsBySchoolId(@Param("schoolId") Long schoolId);
+
+    @Query("SELECT s FROM Student s JOIN FETCH s.school WHERE s.id IN :ids")
+    List<Student> findAllWithSchoolByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s FROM Student s JOIN FETCH s.school WHERE s.email IN :emails")
+    List<Student> findAllWithSchoolByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT s FROM Student s JOIN FETCH s.school sc WHERE sc.name = :schoolName")
     List<Student> findBySchoolName(@Param("schoolName") String schoolName);
 
-    @Query("SELECT s FROM Student s WHERE LOWER(s.firstname) LIKE LOWER(CONCAT('%', :name, '%')) " +
+    @Query("SELECT s FROM Student s JOIN FETCH s.school WHERE LOWER(s.firstname) LIKE LOWER(CONCAT('%', :name, '%')) " +
             "OR LOWER(s.lastname) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Student> findByNameContaining(@Param("name") String name);
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT s.email FROM Student s WHERE s.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(s) FROM Student s WHERE s.school.id = :schoolId")
     Long countBySchoolId(@Param("schoolId") Long schoolId);
 
-    void deleteByEmail(String email);
+    /**
+     * Removes every student of a school in one statement, bypassing the persistence context. Hibernate
+     * cannot tell which rows a bulk statement touched, so it evicts the whole Student entity and
+     * natural-id regions and the query cache spaces on the students table. Fine for the rare school
+     * delete; single students are removed through the entity so only their own entries go.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Student s WHERE s.school.id = :schoolId")
+    int deleteBySchoolId(@Param("schoolId") Long schoolId);
 }
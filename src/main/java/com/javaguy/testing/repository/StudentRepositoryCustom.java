@@ -0,0 +1,14 @@
+package com.javaguy.testing.repository;
+
+import com.javaguy.testing.models.Student;
+
+import java.util.Optional;
+
+public interface StudentRepositoryCustom {
+
+    /**
+     * Loads a student by its email natural id, served from the natural-id and entity
+     * caches when both are warm.
+     */
+    Optional<Student> findCachedByEmail(String email);
+}
@@ -0,0 +1,11 @@
+package com.javaguy.testing.repository;
+
+/**
+ * Minimal view of a student used to build the in-memory school rosters.
+ */
+public interface StudentSchoolId {
+
+    Long getId();
+
+    Long getSchoolId();
+}
@@ -0,0 +1,231 @@
+package com.javaguy.testing.search;
+
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.repository.StudentSchoolId;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory roster of every school: the ids of its students, sorted in a primitive {@code long[]}.
+ * Counts are O(1) and a roster costs 8 bytes per student, about 8 MB per million students once
+ * trimmed (see {@code SchoolRosterIndexBenchmark}).
+ * <p>
+ * Built by a streaming scan once the application is ready and kept current by the student and
+ * school write paths after their transactions commit. Callers check {@link #isReady()} and go to
+ * the database while the scan is running. Removing a student by id alone binary searches every
+ * roster, which stays cheap for the number of schools this models.
+ */
+@Component
+@Slf4j
+public class SchoolRosterIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Roster> rosters = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Students and schools written while a rebuild is scanning, their scanned rows may already be stale
+    private Set<Long> changedDuringRebuild;
+    private Set<Long> schoolsRemovedDuringRebuild;
+    private volatile boolean ready;
+
+    public SchoolRosterIndex(StudentRepository studentRepository, PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        // Read-write on purpose: the scan has to see the primary, not a lagging read replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rosters.clear();
+            changedDuringRebuild = new HashSet<>();
+            schoolsRemovedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Integer indexed = null;
+        try {
+            indexed = transactionTemplate.execute(status -> {
+                int count = 0;
+                try (Stream<StudentSchoolId> rows = studentRepository.streamSchoolIds()) {
+                    for (Iterator<StudentSchoolId> it = rows.iterator(); it.hasNext(); count++) {
+                        StudentSchoolId row = it.next();
+                        putScanned(row.getSchoolId(), row.getId());
+                    }
+                }
+                return count;
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rosters.values().forEach(Roster::trim);
+                changedDuringRebuild = null;
+                schoolsRemovedDuringRebuild = null;
+                ready = indexed != null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Indexed {} students into {} school rosters in {} ms", indexed, schools(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(Long schoolId, Long studentId) {
+        AfterCommit.run(() -> write(studentId, () -> roster(schoolId).add(studentId)));
+    }
+
+    public void move(Long studentId, Long fromSchoolId, Long toSchoolId) {
+        AfterCommit.run(() -> write(studentId, () -> {
+            Roster from = rosters.get(fromSchoolId);
+            if (from != null) {
+                from.remove(studentId);
+            }
+            roster(toSchoolId).add(studentId);
+        }));
+    }
+
+    public void remove(Long studentId) {
+        AfterCommit.run(() -> write(studentId, () -> {
+            for (Roster roster : rosters.values()) {
+                if (roster.remove(studentId)) {
+                    return;
+                }
+            }
+        }));
+    }
+
+    /**
+     * Drops the roster of a deleted school together with its students.
+     */
+    public void removeSchool(Long schoolId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                rosters.remove(schoolId);
+                if (schoolsRemovedDuringRebuild != null) {
+                    schoolsRemovedDuringRebuild.add(schoolId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public int count(Long schoolId) {
+        lock.readLock().lock();
+        try {
+            Roster roster = rosters.get(schoolId);
+            return roster != null ? roster.size : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the school's student ids in ascending order, empty for an unknown school.
+     */
+    public long[] studentIds(Long schoolId) {
+        lock.readLock().lock();
+        try {
+            Roster roster = rosters.get(schoolId);
+            return roster != null ? Arrays.copyOf(roster.ids, roster.size) : EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int schools() {
+        lock.readLock().lock();
+        try {
+            return rosters.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putScanned(Long schoolId, Long studentId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild == null
+                    || !changedDuringRebuild.contains(studentId) && !schoolsRemovedDuringRebuild.contains(schoolId)) {
+                roster(schoolId).add(studentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Long studentId, Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(studentId);
+            }
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Roster roster(Long schoolId) {
+        return rosters.computeIfAbsent(schoolId, id -> new Roster());
+    }
+
+    private static final class Roster {
+        private long[] ids = EMPTY;
+        private int size;
+
+        void add(long id) {
+            // Ids come from a sequence, so new students almost always append at the end
+            int position = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(8, size + (size >> 1)));
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        void trim() {
+            if (ids.length != size) {
+                ids = size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.javaguy.testing.search;
+
+import com.javaguy.testing.config.SchedulingConfig;
+import com.javaguy.testing.repository.StudentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over student emails that answers "definitely not taken" without a query.
+ * <p>
+ * Emails are added while the writing transaction is still open, so a committed email is always
+ * in the filter and a negative answer is never wrong; a rolled back write only costs a false
+ * positive. Deleted emails cannot be removed and are shed by the rebuild every
+ * {@code app.email-filter.rebuild-interval}. A rebuild sizes the filter for
+ * {@code app.email-filter.false-positive-rate} at twice the current row count and runs early once
+ * more emails than that were added. Like the other in-memory indexes this assumes every write goes through this instance.
+ * <p>
+ * Callers report what the database said for every possible positive through
+ * {@link #recordLookup(boolean)}, which feeds the observed false-positive rate.
+ */
+@Component
+@Slf4j
+public class StudentEmailFilter {
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double falsePositiveRate;
+
+    private final Counter saved;
+    private final Counter truePositives;
+    private final Counter falsePositives;
+
+    private final Duration rebuildInterval;
+    private final AtomicLong addedSinceRebuild = new AtomicLong();
+
+    private volatile Bits bits;
+    // Receives concurrent adds while a rebuild is scanning into it
+    private volatile Bits building;
+    private volatile long lastRebuild;
+
+    public StudentEmailFilter(StudentRepository studentRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${app.email-filter.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.studentRepository = studentRepository;
+        // Read-write on purpose: the scan has to see the primary, not a lagging read replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+
+        this.saved = Counter.builder("students.email.filter.saved")
+                .description("Email lookups answered by the filter without a query")
+                .register(meterRegistry);
+        this.truePositives = Counter.builder("students.email.filter.positives")
+                .tag("outcome", "true")
+                .description("Possible positives the database confirmed")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("students.email.filter.positives")
+                .tag("outcome", "false")
+                .description("Possible positives the database did not find")
+                .register(meterRegistry);
+        Gauge.builder("students.email.filter.false.positive.rate", this, StudentEmailFilter::observedFalsePositiveRate)
+                .description("False positives among lookups of absent emails")
+                .register(meterRegistry);
+        Gauge.builder("students.email.filter.expected.false.positive.rate", this, StudentEmailFilter::expectedFalsePositiveRate)
+                .description("False-positive probability implied by the current fill")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+
+        Integer indexed = transactionTemplate.execute(status -> {
+            long rows = studentRepository.count();
+            Bits next = Bits.forCapacity(Math.max(MIN_CAPACITY, 2 * rows), falsePositiveRate);
+            addedSinceRebuild.set(rows);
+            building = next;
+            int count = 0;
+            try (Stream<String> emails = studentRepository.streamEmails()) {
+                for (Iterator<String> it = emails.iterator(); it.hasNext(); count++) {
+                    next.add(it.next());
+                }
+            }
+            bits = next;
+            return count;
+        });
+        building = null;
+        lastRebuild = System.nanoTime();
+
+        log.info("Loaded {} student emails into the email filter in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds once the filter holds more emails than it was sized for, or when the periodic
+     * rebuild is due.
+     */
+    @Scheduled(initialDelayString = "${app.email-filter.check-interval:10000}",
+            fixedDelayString = "${app.email-filter.check-interval:10000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void maintain() {
+        Bits current = bits;
+        if (current == null) {
+            return;
+        }
+        if (addedSinceRebuild.get() > current.capacity || System.nanoTime() - lastRebuild > rebuildInterval.toNanos()) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    /**
+     * Call inside the writing transaction, before it commits. The email is added again after the
+     * commit, which lands in a filter being rebuilt even when the scan started before the commit.
+     */
+    public void add(String email) {
+        addedSinceRebuild.incrementAndGet();
+        addNow(email);
+        AfterCommit.run(() -> addNow(email));
+    }
+
+    // building before bits: rebuild() publishes bits before it clears building, so whichever
+    // moment this runs at, the email lands in the filter that ends up published
+    private void addNow(String email) {
+        Bits next = building;
+        if (next != null) {
+            next.add(email);
+        }
+        Bits current = bits;
+        if (current != null && current != next) {
+            current.add(email);
+        }
+    }
+
+    /**
+     * Returns false only when no student has the email. Not ready yet means possibly taken.
+     */
+    public boolean mightContain(String email) {
+        Bits current = bits;
+        if (current == null || current.mightContain(email)) {
+            return true;
+        }
+        saved.increment();
+        return false;
+    }
+
+    public void recordLookup(boolean found) {
+        (found ? truePositives : falsePositives).increment();
+    }
+
+    double observedFalsePositiveRate() {
+        double negatives = saved.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    double expectedFalsePositiveRate() {
+        Bits current = bits;
+        return current == null ? 1 : current.expectedFalsePositiveRate();
+    }
+
+    private static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final long capacity;
+
+        private Bits(long size, int hashes, long capacity) {
+            this.words = new AtomicLongArray((int) ((size + 63) >>> 6));
+            this.size = words.length() * 64L;
+            this.hashes = hashes;
+            this.capacity = capacity;
+        }
+
+        static Bits forCapacity(long capacity, double falsePositiveRate) {
+            long size = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int hashes = Math.max(1, (int) Math.round((double) size / capacity * Math.log(2)));
+            return new Bits(size, hashes, capacity);
+        }
+
+        void add(String email) {
+            long hash = hash(email);
+            long h1 = hash;
+            long h2 = Long.rotateLeft(hash, 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            long h1 = hash;
+            long h2 = Long.rotateLeft(hash, 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return Math.pow((double) set / size, hashes);
+        }
+
+        // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+        private static long hash(String email) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb34fe1a85ec3L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.javaguy.testing.search;
+
+import com.javaguy.testing.events.ChangeEvent;
+import com.javaguy.testing.events.ChangeEventSubscriber;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+import com.javaguy.testing.repository.StudentName;
+import com.javaguy.testing.repository.StudentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over normalized student first and last names.
+ * <p>
+ * Every name token is padded and split into trigrams, each pointing at the ids of the students
+ * that contain it. A search collects candidates from the postings of the query trigrams and ranks
+ * them exact match &gt; prefix &gt; substring &gt; fuzzy (trigram similarity), so typical lookups
+ * touch a handful of posting sets instead of scanning the students table. When that yields fewer
+ * results than asked for, a sorted map of every suffix of every name token fills in infix matches,
+ * each query token being a prefix of the suffixes it occurs in.
+ * <p>
+ * Kept current from the outbox rather than the write path: student changes arrive as change events,
+ * a batch of them costs one query for the current names, so new and renamed students become
+ * searchable within one outbox poll. Ids whose rows disappeared without an event of their own
+ * (students removed with their school) are dropped once a search misses them and the primary
+ * confirms the row is gone, see {@link #removeMissing(Collection)}.
+ */
+@Component
+@Slf4j
+public class StudentNameIndex implements ChangeEventSubscriber {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[\\s\\-']+");
+    private static final String PADDING = "  ";
+    private static final double MIN_FUZZY_SIMILARITY = 0.5;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, String[]> tokensById = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> suffixes = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public StudentNameIndex(StudentRepository studentRepository, PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        // Read-write on purpose: the scan has to see the primary, not a lagging read replica. A new
+        // transaction, so a caller's read-only one cannot pull the reads onto the replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        ready = false;
+
+        Integer indexed = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<StudentName> names = studentRepository.streamNames()) {
+                for (Iterator<StudentName> it = names.iterator(); it.hasNext(); count++) {
+                    StudentName name = it.next();
+                    // Writes that landed while the scan was running are newer than the scanned row
+                    put(name.getId(), name.getFirstname(), name.getLastname(), false);
+                }
+            }
+            return count;
+        });
+
+        ready = true;
+        log.info("Indexed {} student names in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Runs inside the dispatcher transaction and reads the names as they are now, so it does not
+     * matter how many changes to the same student the batch holds.
+     */
+    @Override
+    public void onEvents(List<ChangeEvent> events) {
+        Set<Long> changed = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregateType() != AggregateType.STUDENT || event.aggregateId() == null) {
+                continue;
+            }
+            if (event.type() == EventType.DELETED) {
+                changed.remove(event.aggregateId());
+                removeNow(event.aggregateId());
+            } else {
+                changed.add(event.aggregateId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (StudentName name : studentRepository.findNamesByIdIn(changed)) {
+                index(name.getId(), name.getFirstname(), name.getLastname());
+            }
+        }
+    }
+
+    void index(Long id, String firstname, String lastname) {
+        put(id, firstname, lastname, true);
+    }
+
+    /**
+     * Drops those of the ids a search could not resolve that are really gone. A search may have
+     * read a replica that has not caught up with a new student yet, so the ids are checked again
+     * on the primary.
+     */
+    public void removeMissing(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        List<StudentName> present = transactionTemplate.execute(status -> studentRepository.findNamesByIdIn(ids));
+        if (present != null) {
+            present.forEach(name -> missing.remove(name.getId()));
+        }
+        missing.forEach(this::removeNow);
+    }
+
+    public void removeNow(Long id) {
+        lock.writeLock().lock();
+        try {
+            String[] tokens = tokensById.remove(id);
+            if (tokens != null) {
+                unlink(id, tokens);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching students, most relevant first.
+     */
+    public List<Long> search(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0 || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> hits = new HashMap<>();
+            int queryGrams = 0;
+            for (String token : queryTokens) {
+                for (String gram : trigrams(PADDING + token)) {
+                    queryGrams++;
+                    Set<Long> ids = postings.get(gram);
+                    if (ids != null) {
+                        ids.forEach(id -> hits.merge(id, 1, Integer::sum));
+                    }
+                }
+            }
+
+            int minHits = Math.max(1, queryGrams / 3);
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::score)
+                    .thenComparing(Match::id, Comparator.reverseOrder()));
+            hits.forEach((id, count) -> {
+                if (count >= minHits) {
+                    offer(best, limit, id, score(queryTokens, tokensById.get(id)));
+                }
+            });
+
+            // Padded trigrams anchor at the start of a token, so infix queries without an interior
+            // trigram ("oh" in "john") or with too few shared grams only show up among the suffixes
+            if (best.size() < limit) {
+                containingAll(queryTokens).forEach(id -> {
+                    Integer count = hits.get(id);
+                    if (count == null || count < minHits) {
+                        offer(best, limit, id, score(queryTokens, tokensById.get(id)));
+                    }
+                });
+            }
+
+            Long[] ranked = new Long[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = best.poll().id();
+            }
+            return Arrays.asList(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tokensById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Long id, String firstname, String lastname, boolean replace) {
+        String[] tokens = tokenize(firstname + " " + lastname);
+
+        lock.writeLock().lock();
+        try {
+            String[] previous = tokensById.get(id);
+            if (previous != null) {
+                if (!replace) {
+                    return;
+                }
+                unlink(id, previous);
+            }
+            tokensById.put(id, tokens);
+            for (String token : tokens) {
+                for (String gram : trigrams(PADDING + token + " ")) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+                }
+                for (int i = 0; i < token.length(); i++) {
+                    suffixes.computeIfAbsent(token.substring(i), suffix -> new HashSet<>()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(Long id, String[] tokens) {
+        for (String token : tokens) {
+            for (String gram : trigrams(PADDING + token + " ")) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+            for (int i = 0; i < token.length(); i++) {
+                String suffix = token.substring(i);
+                Set<Long> ids = suffixes.get(suffix);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    suffixes.remove(suffix);
+                }
+            }
+        }
+    }
+
+    private static void offer(PriorityQueue<Match> best, int limit, Long id, double score) {
+        if (score > 0) {
+            best.add(new Match(id, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+    }
+
+    // Ids with a name token containing each of the query tokens
+    private Set<Long> containingAll(String[] queryTokens) {
+        Set<Long> containing = null;
+        for (String queryToken : queryTokens) {
+            Set<Long> ids = new HashSet<>();
+            suffixes.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(ids::addAll);
+            if (containing == null) {
+                containing = ids;
+            } else {
+                containing.retainAll(ids);
+            }
+            if (containing.isEmpty()) {
+                break;
+            }
+        }
+        return containing;
+    }
+
+    private static double score(String[] queryTokens, String[] nameTokens) {
+        if (nameTokens == null) {
+            return 0;
+        }
+
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (String nameToken : nameTokens) {
+                best = Math.max(best, tokenScore(queryToken, nameToken));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total / queryTokens.length;
+    }
+
+    private static double tokenScore(String queryToken, String nameToken) {
+        if (nameToken.equals(queryToken)) {
+            return 1.0;
+        }
+        if (nameToken.startsWith(queryToken)) {
+            return 0.8;
+        }
+        if (nameToken.contains(queryToken)) {
+            return 0.6;
+        }
+        double similarity = similarity(queryToken, nameToken);
+        return similarity >= MIN_FUZZY_SIMILARITY ? similarity * 0.5 : 0;
+    }
+
+    // Dice coefficient over padded trigrams, tolerant to small typos
+    private static double similarity(String a, String b) {
+        List<String> gramsA = trigrams(PADDING + a + " ");
+        Set<String> gramsB = new HashSet<>(trigrams(PADDING + b + " "));
+        int shared = 0;
+        for (String gram : gramsA) {
+            if (gramsB.contains(gram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (gramsA.size() + gramsB.size());
+    }
+
+    private static List<String> trigrams(String padded) {
+        List<String> grams = new ArrayList<>(Math.max(0, padded.length() - 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    static String[] tokenize(String value) {
+        if (value == null) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+        return normalized.isEmpty() ? new String[0] : TOKEN_SEPARATORS.split(normalized);
+    }
+
+    private record Match(Long id, double score) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.javaguy.testing.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor of the student pages: the URL-safe Base64 of the last id on the page.
+ * <p>
+ * Pages come in id order, which is not the order students were created in: ids are handed out in
+ * blocks per application instance (pooled-lo), so a later student can get a lower id than an
+ * earlier one from another instance. The id keyset still visits every student that exists when
+ * the walk starts exactly once.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the id to continue after, 0 for a missing cursor.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.javaguy.testing.service;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * A resource together with the validators of its current state. The body is only mapped when
+ * asked for, so a conditional request that already holds this revision never pays for it.
+ *
+ * @param etag         strong entity tag, quoted, derived from the id and the {@code @Version}
+ * @param lastModified last write, second precision as in HTTP dates
+ * @param body         maps the resource, usable after the transaction has ended
+ */
+public record Revision<T>(String etag, Instant lastModified, Supplier<T> body) {
+
+    static String etag(Long id, Long version) {
+        return "\"" + id + "." + version + "\"";
+    }
+}
@@ -1,14 +1,25 @@
 package com.javaguy.testing.service;
 
+import com.javaguy.testing.config.CacheConfig;
+import com.javaguy.testing.events.ChangeEventOutbox;
 import com.javaguy.testing.exception.SchoolAlreadyExistsException;
 import com.javaguy.testing.exception.SchoolNotFoundException;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
 import com.javaguy.testing.models.School;
 import com.javaguy.testing.dto.SchoolDto;
 import com.javaguy.testing.mappers.SchoolMapper;
 import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.SchoolSummary;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.search.SchoolRosterIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -17,15 +28,21 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("schools.service")
 @Transactional(readOnly = true)
 public class SchoolService {
 
     private final SchoolRepository schoolRepository;
+    private final StudentRepository studentRepository;
     private final SchoolMapper schoolMapper;
+    private final SingleFlight singleFlight;
+    private final SchoolRosterIndex schoolRosterIndex;
+    private final ChangeEventOutbox changeEventOutbox;
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SCHOOLS_BY_NAME, key = "#schoolDto.name")
     public SchoolDto createSchool(SchoolDto schoolDto) {
-        log.info("Creating school: {}", schoolDto.getName());
+        log.debug("Creating school: {}", schoolDto.getName());
 
         if (schoolRepository.existsByName(schoolDto.getName())) {
             throw new SchoolAlreadyExistsException("School with name " + schoolDto.getName() + " already exists");
@@ -33,40 +50,54 @@ public class SchoolService {
 
         School school = schoolMapper.toSchool(schoolDto);
         School savedSchool = schoolRepository.save(school);
+        changeEventOutbox.append(AggregateType.SCHOOL, savedSchool.getId(), savedSchool.getName(), EventType.CREATED);
 
         log.info("Successfully created school with ID: {}", savedSchool.getId());
-        return schoolMapper.toSchoolDto(savedSchool);
+        return schoolMapper.toSchoolDto(savedSchool, 0);
     }
 
+    /**
+     * Resolves a school by name through a bounded Caffeine cache. The cached instance is detached,
+     * which is all the student write paths need to set the foreign key and map the school name.
+     */
+    @Cacheable(cacheNames = CacheConfig.SCHOOLS_BY_NAME, key = "#name")
     public School findByName(String name) {
-        return schoolRepository.findByName(name)
+        return schoolRepository.findCachedByName(name)
                 .orElseThrow(() -> new SchoolNotFoundException("School not found with name: " + name));
     }
 
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<SchoolDto> findSchoolDtoByName(String name) {
-        return schoolRepository.findByName(name)
-                .map(schoolMapper::toSchoolDto);
+        return singleFlight.execute("schools.findSchoolDtoByName", name, () -> schoolRepository.findSummaryByName(name)
+                .map(schoolMapper::toSchoolDto));
     }
 
     public Optional<SchoolDto> findById(Long id) {
-        return schoolRepository.findById(id)
+        return schoolRepository.findSummaryById(id)
                 .map(schoolMapper::toSchoolDto);
     }
 
     public List<SchoolDto> findAll() {
-        List<School> schools = schoolRepository.findAll();
+        List<SchoolSummary> schools = schoolRepository.findAllSummaries();
         return schoolMapper.toSchoolDtoList(schools);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SCHOOLS_BY_NAME, allEntries = true)
     public void deleteSchool(Long id) {
-        log.info("Deleting school with ID: {}", id);
+        log.debug("Deleting school with ID: {}", id);
 
-        if (!schoolRepository.existsById(id)) {
+        if (schoolRepository.findById(id).isEmpty()) {
             throw new SchoolNotFoundException("School not found with ID: " + id);
         }
-
+        // One statement for all students instead of loading and removing each through the cascade;
+        // the name index drops the removed ids the next time a search resolves them
+        int students = studentRepository.deleteBySchoolId(id);
         schoolRepository.deleteById(id);
-        log.info("Successfully deleted school with ID: {}", id);
+        schoolRosterIndex.removeSchool(id);
+        // Covers the removed students as well, they get no event of their own
+        changeEventOutbox.append(AggregateType.SCHOOL, id, null, EventType.DELETED);
+
+        log.info("Successfully deleted school with ID: {} and {} students", id, students);
     }
 }
@@ -0,0 +1,102 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.config.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads. The first caller for an operation and key runs the loader
+ * in its own read-only transaction; callers arriving while it is in flight wait for it and share
+ * its result or exception instead of querying again. Nothing is kept once the call completes.
+ * <p>
+ * Callers already inside a transaction bypass coalescing since they may need to see their own
+ * uncommitted writes. Shared results are handed to several threads and must not be mutated. With
+ * a replica the call also depends on where the caller reads from, so a caller whose reads stay on
+ * the primary for read-your-writes never waits for a leader reading the replica.
+ * <p>
+ * Publishes {@code singleflight.calls} tagged with the operation and the caller's role
+ * ({@code leader} or {@code follower}); followers over all calls is the coalescing ratio.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<Call, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // Only in the replica profile
+    private final ReadWriteRoutingDataSource routing;
+
+    public SingleFlight(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                        ObjectProvider<ReadWriteRoutingDataSource> routing) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.routing = routing.getIfAvailable();
+        meterRegistry.gaugeMapSize("singleflight.in.flight", Tags.empty(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+
+        Call call = new Call(operation, key, routing != null ? routing.readTarget() : null);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(call, flight);
+        Counter[] roles = counters.computeIfAbsent(operation, this::register);
+        if (leader != null) {
+            roles[1].increment();
+            return (T) await(leader);
+        }
+
+        roles[0].increment();
+        try {
+            T result = transactionTemplate.execute(status -> loader.get());
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(call, flight);
+        }
+    }
+
+    private Counter[] register(String operation) {
+        return new Counter[]{
+                meterRegistry.counter("singleflight.calls", "operation", operation, "role", "leader"),
+                meterRegistry.counter("singleflight.calls", "operation", operation, "role", "follower")
+        };
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Call(String operation, Object key, ReadWriteRoutingDataSource.Target target) {
+    }
+}
@@ -0,0 +1,270 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.dto.BulkImportResultDto;
+import com.javaguy.testing.dto.BulkImportRowDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.events.ChangeEventOutbox;
+import com.javaguy.testing.mappers.StudentMapper;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.search.SchoolRosterIndex;
+import com.javaguy.testing.search.StudentEmailFilter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Imports students in chunks of {@value #CHUNK_SIZE} rows. Every chunk runs in its own transaction
+ * and costs one school lookup, one email duplicate check and a batched insert, instead of three
+ * round trips per row. Invalid rows are reported and skipped without failing the rest of the upload.
+ * A chunk that hits the unique email constraint, because another writer inserted one of its emails
+ * in the meantime, is retried without those rows; any other failure fails the rows of the chunk.
+ */
+@Service
+@Slf4j
+@Timed("students.import")
+public class StudentImportService {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private final StudentRepository studentRepository;
+    private final SchoolRepository schoolRepository;
+    private final StudentMapper studentMapper;
+    private final SchoolRosterIndex schoolRosterIndex;
+    private final StudentEmailFilter studentEmailFilter;
+    private final ChangeEventOutbox changeEventOutbox;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public StudentImportService(StudentRepository studentRepository,
+                                SchoolRepository schoolRepository,
+                                StudentMapper studentMapper,
+                                SchoolRosterIndex schoolRosterIndex,
+                                StudentEmailFilter studentEmailFilter,
+                                ChangeEventOutbox changeEventOutbox,
+                                Validator validator,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.schoolRepository = schoolRepository;
+        this.studentMapper = studentMapper;
+        this.schoolRosterIndex = schoolRosterIndex;
+        this.studentEmailFilter = studentEmailFilter;
+        this.changeEventOutbox = changeEventOutbox;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports the given rows. Each supplier yields one parsed row and may throw
+     * {@link IllegalArgumentException} when the row cannot be parsed.
+     */
+    public BulkImportResultDto importStudents(Iterator<? extends Supplier<StudentDto>> rows) {
+        log.debug("Starting bulk student import");
+
+        List<BulkImportRowDto> report = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        int rowNumber = 0;
+
+        while (rows.hasNext()) {
+            chunk.add(parse(++rowNumber, rows.next()));
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, seenEmails, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenEmails, report);
+        }
+
+        int succeeded = (int) report.stream()
+                .filter(row -> row.getStatus() == BulkImportRowDto.Status.CREATED)
+                .count();
+
+        log.info("Finished bulk student import: {} created, {} failed", succeeded, report.size() - succeeded);
+        return BulkImportResultDto.builder()
+                .total(report.size())
+                .succeeded(succeeded)
+                .failed(report.size() - succeeded)
+                .rows(report)
+                .build();
+    }
+
+    private void importChunk(List<PendingRow> chunk, Set<String> seenEmails, List<BulkImportRowDto> report) {
+        for (PendingRow row : chunk) {
+            if (row.error == null) {
+                prepare(row, seenEmails);
+            }
+        }
+
+        List<PendingRow> pending = chunk.stream()
+                .filter(row -> row.error == null)
+                .toList();
+        while (!pending.isEmpty()) {
+            List<PendingRow> attempt = pending;
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(attempt));
+                break;
+            } catch (RuntimeException e) {
+                String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn("Bulk import chunk failed: {}", cause);
+                // Flush failures reach here untranslated, so look for the conflicting rows whatever the type
+                if (rejectTakenEmails(attempt) > 0) {
+                    pending = attempt.stream()
+                            .filter(row -> row.error == null)
+                            .toList();
+                    // The rolled back attempt left ids and versions on the entities
+                    pending.forEach(row -> row.student = studentMapper.toStudent(row.dto));
+                    continue;
+                }
+                for (PendingRow row : attempt) {
+                    if (row.error == null) {
+                        row.error = "Chunk rolled back: " + cause;
+                    }
+                }
+                break;
+            }
+        }
+
+        for (PendingRow row : chunk) {
+            boolean created = row.error == null;
+            report.add(BulkImportRowDto.builder()
+                    .row(row.number)
+                    .email(row.student != null ? row.student.getEmail() : row.dto != null ? row.dto.getEmail() : null)
+                    .status(created ? BulkImportRowDto.Status.CREATED : BulkImportRowDto.Status.FAILED)
+                    .id(created ? row.student.getId() : null)
+                    .error(row.error)
+                    .build());
+        }
+    }
+
+    /**
+     * Fails the rows whose email was inserted by someone else since the duplicate check, which may
+     * have trusted the email filter of this instance, and returns how many there were.
+     */
+    private int rejectTakenEmails(List<PendingRow> rows) {
+        List<String> emails = rows.stream()
+                .filter(row -> row.error == null)
+                .map(row -> row.student.getEmail())
+                .toList();
+        List<String> taken = transactionTemplate.execute(status -> studentRepository.findExistingEmails(emails));
+        Set<String> takenEmails = taken == null ? Set.of() : new HashSet<>(taken);
+
+        int rejected = 0;
+        for (PendingRow row : rows) {
+            if (row.error == null && takenEmails.contains(row.student.getEmail())) {
+                row.error = "Student with email " + row.student.getEmail() + " already exists";
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private void insert(List<PendingRow> candidates) {
+        Set<String> schoolNames = candidates.stream()
+                .map(row -> row.student.getSchool().getName())
+                .collect(Collectors.toSet());
+        Map<String, School> schoolsByName = schoolRepository.findByNameIn(schoolNames).stream()
+                .collect(Collectors.toMap(School::getName, Function.identity()));
+
+        // Only emails the filter cannot rule out are checked, a chunk of new students needs no query
+        List<String> possiblyTaken = candidates.stream()
+                .map(row -> row.student.getEmail())
+                .filter(studentEmailFilter::mightContain)
+                .toList();
+        Set<String> existingEmails = possiblyTaken.isEmpty()
+                ? Set.of()
+                : new HashSet<>(studentRepository.findExistingEmails(possiblyTaken));
+        for (String email : possiblyTaken) {
+            studentEmailFilter.recordLookup(existingEmails.contains(email));
+        }
+
+        List<Student> students = new ArrayList<>(candidates.size());
+        for (PendingRow row : candidates) {
+            School school = schoolsByName.get(row.student.getSchool().getName());
+            if (school == null) {
+                row.error = "School not found with name: " + row.student.getSchool().getName();
+            } else if (existingEmails.contains(row.student.getEmail())) {
+                row.error = "Student with email " + row.student.getEmail() + " already exists";
+            } else {
+                row.student.setSchool(school);
+                students.add(row.student);
+            }
+        }
+
+        studentRepository.saveAll(students);
+        for (Student student : students) {
+            studentEmailFilter.add(student.getEmail());
+            changeEventOutbox.append(AggregateType.STUDENT, student.getId(), student.getEmail(), EventType.CREATED);
+        }
+        entityManager.flush();
+        for (Student student : students) {
+            schoolRosterIndex.add(student.getSchool().getId(), student.getId());
+        }
+        entityManager.clear();
+    }
+
+    private void prepare(PendingRow row, Set<String> seenEmails) {
+        Set<ConstraintViolation<StudentDto>> violations = validator.validate(row.dto);
+        if (!violations.isEmpty()) {
+            row.error = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            return;
+        }
+
+        try {
+            row.student = studentMapper.toStudent(row.dto);
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+            return;
+        }
+
+        if (!seenEmails.add(row.student.getEmail())) {
+            row.error = "Duplicate email " + row.student.getEmail() + " in upload";
+        }
+    }
+
+    private static PendingRow parse(int number, Supplier<StudentDto> source) {
+        PendingRow row = new PendingRow(number);
+        try {
+            row.dto = source.get();
+            if (row.dto == null) {
+                row.error = "Empty row";
+            }
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+        }
+        return row;
+    }
+
+    private static final class PendingRow {
+        private final int number;
+        private StudentDto dto;
+        private Student student;
+        private String error;
+
+        private PendingRow(int number) {
+            this.number = number;
+        }
+    }
+}
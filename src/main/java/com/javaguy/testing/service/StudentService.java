@@ -1,38 +1,71 @@
 package com.javaguy.testing.service;
 
+import com.javaguy.testing.exception.ConstraintViolations;
 import com.javaguy.testing.exception.StudentAlreadyExistsException;
+import com.javaguy.testing.exception.StudentModifiedException;
 import com.javaguy.testing.exception.StudentNotFoundException;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
 import com.javaguy.testing.models.School;
 import com.javaguy.testing.models.Student;
+import com.javaguy.testing.dto.StudentBatchGetResultDto;
 import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import com.javaguy.testing.events.ChangeEventOutbox;
 import com.javaguy.testing.mappers.StudentMapper;
 import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.search.SchoolRosterIndex;
+import com.javaguy.testing.search.StudentEmailFilter;
+import com.javaguy.testing.search.StudentNameIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("students.service")
 @Transactional(readOnly = true)
 public class StudentService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final StudentRepository studentRepository;
     private final SchoolService schoolService;
     private final StudentMapper studentMapper;
+    private final EntityManager entityManager;
+    private final StudentNameIndex studentNameIndex;
+    private final SchoolRosterIndex schoolRosterIndex;
+    private final StudentEmailFilter studentEmailFilter;
+    private final SingleFlight singleFlight;
+    private final ChangeEventOutbox changeEventOutbox;
 
     @Transactional
     public StudentDto createStudent(StudentDto studentDto) {
-        log.info("Creating models with email: {}", studentDto.getEmail());
-
-        // Check if models already exists
-        if (studentRepository.existsByEmail(studentDto.getEmail())) {
-            throw new StudentAlreadyExistsException("Student with email " + studentDto.getEmail() + " already exists");
-        }
+        log.debug("Creating models with email: {}", studentDto.getEmail());
 
         // Find or create school
         School school = schoolService.findByName(studentDto.getSchoolName());
@@ -41,18 +74,26 @@ public class StudentService {
         Student student = studentMapper.toStudent(studentDto);
         student.setSchool(school);
 
-        // Save models
-        Student savedStudent = studentRepository.save(student);
+        // Save models, relying on the email unique constraint instead of a pre-check
+        Student savedStudent = saveUnique(student);
+        studentEmailFilter.add(savedStudent.getEmail());
+        schoolRosterIndex.add(school.getId(), savedStudent.getId());
+        changeEventOutbox.append(AggregateType.STUDENT, savedStudent.getId(), savedStudent.getEmail(), EventType.CREATED);
 
         log.info("Successfully created models with ID: {}", savedStudent.getId());
         return studentMapper.toStudentDto(savedStudent);
     }
 
+    // Hot read paths start no transaction of their own, SingleFlight opens one per coalesced lookup
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<StudentDto> findByEmail(String email) {
         log.debug("Finding models by email: {}", email);
 
-        return studentRepository.findByEmail(email)
-                .map(studentMapper::toStudentDto);
+        if (!studentEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        return singleFlight.execute("students.findByEmail", email, () -> lookUpByEmail(email)
+                .map(studentMapper::toStudentDto));
     }
 
     public Optional<StudentDto> findById(Long id) {
@@ -62,6 +103,71 @@ public class StudentService {
                 .map(studentMapper::toStudentDto);
     }
 
+    public Optional<Revision<StudentDto>> findRevisionById(Long id) {
+        log.debug("Finding models revision by ID: {}", id);
+
+        return studentRepository.findById(id)
+                .map(this::toRevision);
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Revision<StudentDto>> findRevisionByEmail(String email) {
+        log.debug("Finding models revision by email: {}", email);
+
+        if (!studentEmailFilter.mightContain(email)) {
+            return Optional.empty();
+        }
+        return singleFlight.execute("students.findRevisionByEmail", email, () -> lookUpByEmail(email)
+                .map(this::toRevision));
+    }
+
+    /**
+     * Resolves up to {@value #MAX_BATCH_SIZE} ids and emails with one {@code IN} query each,
+     * keeping request order and reporting the keys that matched nothing.
+     */
+    public StudentBatchGetResultDto batchGet(List<Long> ids, List<String> emails) {
+        Set<Long> idKeys = distinctKeys(ids);
+        Set<String> emailKeys = distinctKeys(emails);
+        log.debug("Batch lookup of {} ids and {} emails", idKeys.size(), emailKeys.size());
+
+        if (idKeys.size() + emailKeys.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids and emails per batch");
+        }
+
+        Map<Long, Student> byId = idKeys.isEmpty() ? Map.of() : studentRepository.findAllWithSchoolByIdIn(idKeys)
+                .stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Map<String, Student> byEmail = emailKeys.isEmpty() ? Map.of() : studentRepository.findAllWithSchoolByEmailIn(emailKeys)
+                .stream()
+                .collect(Collectors.toMap(Student::getEmail, Function.identity()));
+
+        List<StudentDto> found = new ArrayList<>(byId.size() + byEmail.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingEmails = new ArrayList<>();
+        for (Long id : idKeys) {
+            Student student = byId.get(id);
+            if (student != null) {
+                found.add(studentMapper.toStudentDto(student));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String email : emailKeys) {
+            Student student = byEmail.get(email);
+            if (student != null) {
+                found.add(studentMapper.toStudentDto(student));
+            } else {
+                missingEmails.add(email);
+            }
+        }
+
+        return StudentBatchGetResultDto.builder()
+                .students(found)
+                .missingIds(missingIds)
+                .missingEmails(missingEmails)
+                .build();
+    }
+
     public List<StudentDto> findAll() {
         log.debug("Finding all students");
 
@@ -69,34 +175,119 @@ public class StudentService {
         return studentMapper.toStudentDtoList(students);
     }
 
+    /**
+     * Returns the students after the cursor in id order, see {@link PageCursor}.
+     */
+    public StudentPageDto findPage(String cursor, int limit) {
+        log.debug("Finding students page after cursor: {}", cursor);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        long afterId = PageCursor.decode(cursor);
+
+        // Fetch one extra row to find out whether another page exists
+        List<Student> students = studentRepository.findPageAfter(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = students.size() > pageSize;
+        if (hasNext) {
+            students = students.subList(0, pageSize);
+        }
+
+        return StudentPageDto.builder()
+                .content(studentMapper.toStudentDtoList(students))
+                .size(students.size())
+                .next(hasNext ? PageCursor.encode(students.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    /**
+     * Walks the whole students table through a forward-only cursor, handing each row to the
+     * consumer and detaching it straight away so the persistence context never grows.
+     */
+    public void streamAll(Consumer<StudentDto> consumer) {
+        log.debug("Streaming all students");
+
+        forEachDetached(studentRepository.streamAll(), consumer);
+    }
+
+    /**
+     * Streams the roster of one school the same way as {@link #streamAll(Consumer)}, in id order.
+     */
+    public void streamBySchoolName(String schoolName, Consumer<StudentDto> consumer) {
+        log.debug("Streaming students of school: {}", schoolName);
+
+        forEachDetached(studentRepository.streamBySchoolName(schoolName), consumer);
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<StudentDto> findBySchoolName(String schoolName) {
         log.debug("Finding students by school name: {}", schoolName);
 
-        List<Student> students = studentRepository.findBySchoolName(schoolName);
-        return studentMapper.toStudentDtoList(students);
+        return singleFlight.execute("students.findBySchoolName", schoolName, () ->
+                studentMapper.toStudentDtoList(studentRepository.findBySchoolName(schoolName)));
     }
 
-    public List<StudentDto> searchByName(String name) {
+    public List<StudentDto> searchByName(String name, int limit) {
         log.debug("Searching students by name: {}", name);
 
-        List<Student> students = studentRepository.findByNameContaining(name);
-        return studentMapper.toStudentDtoList(students);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Search limit must be at least 1");
+        }
+        int maxResults = Math.min(limit, MAX_PAGE_SIZE);
+
+        if (!studentNameIndex.isReady()) {
+            List<Student> students = studentRepository.findByNameContaining(name);
+            return studentMapper.toStudentDtoList(students.subList(0, Math.min(maxResults, students.size())));
+        }
+
+        List<Long> rankedIds = studentNameIndex.search(name, maxResults);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Student> studentsById = studentRepository.findAllWithSchoolByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        List<Student> ranked = new ArrayList<>(studentsById.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : rankedIds) {
+            Student student = studentsById.get(id);
+            if (student != null) {
+                ranked.add(student);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Removed behind the index's back, e.g. by a school cascade, or not on the replica yet
+            studentNameIndex.removeMissing(missing);
+        }
+        return studentMapper.toStudentDtoList(ranked);
     }
 
     @Transactional
     public StudentDto updateStudent(Long id, StudentDto studentDto) {
-        log.info("Updating models with ID: {}", id);
+        return updateStudent(id, studentDto, null).body().get();
+    }
+
+    /**
+     * Updates the student if it is still at {@code expectedVersion} (any version when null).
+     * A concurrent update that commits in between fails the version check of the UPDATE itself.
+     */
+    @Transactional
+    public Revision<StudentDto> updateStudent(Long id, StudentDto studentDto, Long expectedVersion) {
+        log.debug("Updating models with ID: {}", id);
 
         Student existingStudent = studentRepository.findById(id)
                 .orElseThrow(() -> new StudentNotFoundException("Student not found with ID: " + id));
 
-        // Check if email is being changed and if new email already exists
-        if (!existingStudent.getEmail().equals(studentDto.getEmail()) &&
-                studentRepository.existsByEmail(studentDto.getEmail())) {
-            throw new StudentAlreadyExistsException("Student with email " + studentDto.getEmail() + " already exists");
+        if (expectedVersion != null && !expectedVersion.equals(existingStudent.getVersion())) {
+            throw new StudentModifiedException("Student with ID: " + id + " was modified, expected version "
+                    + expectedVersion + " but found " + existingStudent.getVersion());
         }
 
         // Update school if changed
+        Long previousSchoolId = existingStudent.getSchool().getId();
         if (studentDto.getSchoolName() != null &&
                 !studentDto.getSchoolName().equals(existingStudent.getSchool().getName())) {
             School newSchool = schoolService.findByName(studentDto.getSchoolName());
@@ -106,41 +297,128 @@ public class StudentService {
         // Update models fields
         studentMapper.updateStudentFromDto(studentDto, existingStudent);
 
-        Student updatedStudent = studentRepository.save(existingStudent);
+        // A changed email that is already taken fails on the unique constraint
+        Student updatedStudent = saveUnique(existingStudent);
+        studentEmailFilter.add(updatedStudent.getEmail());
+        if (!previousSchoolId.equals(updatedStudent.getSchool().getId())) {
+            schoolRosterIndex.move(id, previousSchoolId, updatedStudent.getSchool().getId());
+        }
+        changeEventOutbox.append(AggregateType.STUDENT, id, updatedStudent.getEmail(), EventType.UPDATED);
 
         log.info("Successfully updated models with ID: {}", id);
-        return studentMapper.toStudentDto(updatedStudent);
+        return toRevision(updatedStudent);
     }
 
     @Transactional
     public void deleteStudent(Long id) {
-        log.info("Deleting models with ID: {}", id);
+        log.debug("Deleting models with ID: {}", id);
 
-        if (!studentRepository.existsById(id)) {
-            throw new StudentNotFoundException("Student not found with ID: " + id);
-        }
+        // Usually a second-level cache hit; removing the entity evicts only its own cache entries
+        Student student = studentRepository.findById(id)
+                .orElseThrow(() -> new StudentNotFoundException("Student not found with ID: " + id));
+        studentRepository.delete(student);
 
-        studentRepository.deleteById(id);
+        schoolRosterIndex.remove(id);
+        changeEventOutbox.append(AggregateType.STUDENT, id, null, EventType.DELETED);
         log.info("Successfully deleted models with ID: {}", id);
     }
 
     @Transactional
     public void deleteByEmail(String email) {
-        log.info("Deleting models with email: {}", email);
+        log.debug("Deleting models with email: {}", email);
 
-        if (!studentRepository.existsByEmail(email)) {
+        if (!studentEmailFilter.mightContain(email)) {
             throw new StudentNotFoundException("Student not found with email: " + email);
         }
+        // Natural-id and entity cache hits in the common case; removing the entity evicts only its
+        // own cache entries
+        Student student = studentRepository.findCachedByEmail(email)
+                .orElseThrow(() -> new StudentNotFoundException("Student not found with email: " + email));
+        studentRepository.delete(student);
+
+        schoolRosterIndex.remove(student.getId());
+        changeEventOutbox.append(AggregateType.STUDENT, student.getId(), email, EventType.DELETED);
 
-        studentRepository.deleteByEmail(email);
         log.info("Successfully deleted models with email: {}", email);
     }
 
+    // No transaction of its own, so a negative answer from the filter never borrows a connection
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public boolean existsByEmail(String email) {
-        return studentRepository.existsByEmail(email);
+        if (!studentEmailFilter.mightContain(email)) {
+            return false;
+        }
+        boolean exists = studentRepository.existsByEmail(email);
+        studentEmailFilter.recordLookup(exists);
+        return exists;
     }
 
     public long countStudentsBySchool(Long schoolId) {
+        if (schoolRosterIndex.isReady()) {
+            return schoolRosterIndex.count(schoolId);
+        }
         return studentRepository.countBySchoolId(schoolId);
     }
+
+    /**
+     * Returns the ids of the school's students in ascending order. Served from memory once the
+     * roster index is built and the school is in the name cache.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public long[] findStudentIdsBySchoolName(String schoolName) {
+        log.debug("Finding student ids by school name: {}", schoolName);
+
+        School school = schoolService.findByName(schoolName);
+        if (schoolRosterIndex.isReady()) {
+            return schoolRosterIndex.studentIds(school.getId());
+        }
+        return studentRepository.findIdsBySchoolId(school.getId()).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private Optional<Student> lookUpByEmail(String email) {
+        Optional<Student> student = studentRepository.findCachedByEmail(email);
+        studentEmailFilter.recordLookup(student.isPresent());
+        return student;
+    }
+
+    private void forEachDetached(Stream<Student> rows, Consumer<StudentDto> consumer) {
+        try (rows) {
+            rows.forEach(student -> {
+                consumer.accept(studentMapper.toStudentDto(student));
+                entityManager.detach(student);
+            });
+        }
+    }
+
+    private static <K> Set<K> distinctKeys(List<K> keys) {
+        if (keys == null) {
+            return Set.of();
+        }
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        distinct.remove(null);
+        return distinct;
+    }
+
+    private Revision<StudentDto> toRevision(Student student) {
+        // The body is mapped after the transaction, so the school has to be loaded now
+        Hibernate.initialize(student.getSchool());
+        Instant lastModified = student.getUpdatedAt() != null
+                ? student.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS)
+                : null;
+        return new Revision<>(Revision.etag(student.getId(), student.getVersion()), lastModified,
+                () -> studentMapper.toStudentDto(student));
+    }
+
+    private Student saveUnique(Student student) {
+        try {
+            return studentRepository.saveAndFlush(student);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, Student.EMAIL_UNIQUE_CONSTRAINT)) {
+                throw new StudentAlreadyExistsException("Student with email " + student.getEmail() + " already exists");
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,39 @@
+-- Baseline schema, previously generated by Hibernate at startup. Hibernate now only validates
+-- the entity mapping against it (spring.jpa.hibernate.ddl-auto=validate).
+--
+-- INCREMENT BY matches IdGeneration.ALLOCATION_SIZE, see the note in
+-- db/vendor/postgresql/V1_1__identity_to_sequence.sql.
+
+CREATE SEQUENCE schools_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE students_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE schools (
+    id           BIGINT       NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    address      VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    version      BIGINT,
+    CONSTRAINT pk_schools PRIMARY KEY (id),
+    -- Backs the natural id lookups by name
+    CONSTRAINT uk_schools_name UNIQUE (name)
+);
+
+CREATE TABLE students (
+    id         BIGINT       NOT NULL,
+    firstname  VARCHAR(255) NOT NULL,
+    lastname   VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    school_id  BIGINT       NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    version    BIGINT,
+    CONSTRAINT pk_students PRIMARY KEY (id),
+    -- Backs the natural id lookups by email; StudentService recognises duplicates by this name
+    CONSTRAINT uk_students_email UNIQUE (email)
+);
+
+-- Created before the foreign key so the constraint reuses it instead of adding its own
+CREATE INDEX idx_students_school_id ON students (school_id);
+
+ALTER TABLE students
+    ADD CONSTRAINT fk_students_school FOREIGN KEY (school_id) REFERENCES schools (id);
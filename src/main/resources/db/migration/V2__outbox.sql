@@ -0,0 +1,14 @@
+-- Change events appended by the write paths in their own transaction and drained by
+-- OutboxDispatcher. Rows only live until they are delivered.
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id             BIGINT                      NOT NULL,
+    aggregate_type VARCHAR(16)                 NOT NULL,
+    aggregate_id   BIGINT,
+    aggregate_key  VARCHAR(255),
+    event_type     VARCHAR(16)                 NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
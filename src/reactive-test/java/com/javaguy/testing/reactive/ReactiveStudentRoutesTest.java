@@ -0,0 +1,159 @@
+package com.javaguy.testing.reactive;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import com.javaguy.testing.events.OutboxDispatcher;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+class ReactiveStudentRoutesTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    private StudentDto john;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Reactive University")
+                .address("1 Netty Lane")
+                .build());
+        john = studentService.createStudent(student("John", "Doe", "john.doe@test.com"));
+        studentService.createStudent(student("Jane", "Smith", "jane.smith@test.com"));
+        studentService.createStudent(student("Bob", "Johnson", "bob.johnson@test.com"));
+        // The name index follows the outbox
+        outboxDispatcher.poll();
+    }
+
+    @Test
+    @DisplayName("Should read a student written through JPA by id and by email")
+    void shouldGetStudentByIdAndEmail() {
+        StudentDto byId = webTestClient.get().uri("/api/students/{id}", john.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentDto.class)
+                .returnResult()
+                .getResponseBody();
+        StudentDto byEmail = webTestClient.get().uri("/api/students/email/{email}", "john.doe@test.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertAll(
+                () -> assertEquals("john.doe@test.com", byId.getEmail()),
+                () -> assertEquals("Reactive University", byId.getSchoolName()),
+                () -> assertEquals(john.getId(), byEmail.getId())
+        );
+        webTestClient.get().uri("/api/students/{id}", 999_999)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should page with the same cursors as the servlet endpoint")
+    void shouldPageWithCursor() {
+        StudentPageDto first = webTestClient.get().uri("/api/students?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentPageDto.class)
+                .returnResult()
+                .getResponseBody();
+        StudentPageDto second = webTestClient.get().uri("/api/students?limit=2&cursor={cursor}", first.getNext())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StudentPageDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertAll(
+                () -> assertEquals(2, first.getSize()),
+                () -> assertNotNull(first.getNext()),
+                () -> assertEquals(1, second.getSize()),
+                () -> assertNull(second.getNext())
+        );
+        webTestClient.get().uri("/api/students?cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should stream a school roster as NDJSON on demand")
+    void shouldStreamSchoolRoster() {
+        Flux<StudentDto> roster = webTestClient.get().uri("/api/students/school/{name}", "Reactive University")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(StudentDto.class)
+                .getResponseBody();
+
+        StepVerifier.create(roster.map(StudentDto::getEmail), 1)
+                .expectNext("john.doe@test.com")
+                .thenRequest(2)
+                .expectNext("jane.smith@test.com", "bob.johnson@test.com")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should rank search results through the name index")
+    void shouldSearchByName() {
+        List<StudentDto> results = webTestClient.get().uri("/api/students/search?name=john")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StudentDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertAll(
+                () -> assertEquals(2, results.size()),
+                () -> assertEquals("john.doe@test.com", results.get(0).getEmail()),
+                () -> assertEquals("bob.johnson@test.com", results.get(1).getEmail())
+        );
+    }
+
+    private static StudentDto student(String firstname, String lastname, String email) {
+        return StudentDto.builder()
+                .firstname(firstname)
+                .lastname(lastname)
+                .email(email)
+                .schoolName("Reactive University")
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.javaguy.testing.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Spring Boot skips its DataSource auto-configuration as soon as an R2DBC connection factory
+ * exists. JPA, Flyway, the write paths and the name index still run on JDBC, so the pool is
+ * declared here from the usual {@code spring.datasource.*} properties. The {@code replica} profile
+ * declares its own pools in {@code ReplicaDataSourceConfig}.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!replica")
+public class JdbcDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.javaguy.testing.reactive;
+
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.dto.StudentPageDto;
+import com.javaguy.testing.search.StudentNameIndex;
+import com.javaguy.testing.service.PageCursor;
+import com.javaguy.testing.service.StudentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reactive mirror of the {@code StudentController} read endpoints. Lists are written as they
+ * are read, so a slow client applies backpressure all the way down to the R2DBC cursor instead
+ * of holding a thread or a fully materialized result.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveStudentHandler {
+
+    private final ReactiveStudentRepository studentRepository;
+    private final StudentNameIndex studentNameIndex;
+
+    public Mono<ServerResponse> getAllStudents(ServerRequest request) {
+        String cursor = request.queryParam("cursor").orElse(null);
+        log.debug("Request to get students page after cursor: {}", cursor);
+
+        int limit = intParam(request, "limit", StudentService.DEFAULT_PAGE_SIZE);
+        if (limit < 1) {
+            return Mono.error(new IllegalArgumentException("Page size must be at least 1"));
+        }
+        int pageSize = Math.min(limit, StudentService.MAX_PAGE_SIZE);
+        long afterId = PageCursor.decode(cursor);
+
+        // Fetch one extra row to find out whether another page exists
+        Mono<StudentPageDto> page = studentRepository.findPageAfter(afterId, pageSize + 1)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > pageSize;
+                    List<StudentRow> content = hasNext ? rows.subList(0, pageSize) : rows;
+                    return StudentPageDto.builder()
+                            .content(content.stream().map(StudentRow::toStudentDto).toList())
+                            .size(content.size())
+                            .next(hasNext ? PageCursor.encode(content.get(pageSize - 1).id()) : null)
+                            .build();
+                });
+        return ServerResponse.ok().body(page, StudentPageDto.class);
+    }
+
+    public Mono<ServerResponse> streamAllStudents(ServerRequest request) {
+        log.debug("Request to stream all students");
+
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(studentRepository.streamAll().map(StudentRow::toStudentDto), StudentDto.class);
+    }
+
+    public Mono<ServerResponse> getStudentById(ServerRequest request) {
+        long id = Long.parseLong(request.pathVariable("id"));
+        log.debug("Request to get models by ID: {}", id);
+
+        return studentRepository.findWithSchoolById(id)
+                .flatMap(row -> ServerResponse.ok().bodyValue(row.toStudentDto()))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getStudentByEmail(ServerRequest request) {
+        String email = request.pathVariable("email");
+        log.debug("Request to get models by email: {}", email);
+
+        return studentRepository.findWithSchoolByEmail(email)
+                .flatMap(row -> ServerResponse.ok().bodyValue(row.toStudentDto()))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getStudentsBySchool(ServerRequest request) {
+        String schoolName = request.pathVariable("schoolName");
+        log.debug("Request to get students by school: {}", schoolName);
+
+        return ServerResponse.ok()
+                .contentType(contentType(request))
+                .body(studentRepository.findBySchoolName(schoolName).map(StudentRow::toStudentDto), StudentDto.class);
+    }
+
+    public Mono<ServerResponse> searchStudents(ServerRequest request) {
+        String name = request.queryParam("name")
+                .orElseThrow(() -> new IllegalArgumentException("Required parameter 'name' is not present"));
+        log.debug("Request to search students by name: {}", name);
+
+        int limit = intParam(request, "limit", 20);
+        if (limit < 1) {
+            return Mono.error(new IllegalArgumentException("Search limit must be at least 1"));
+        }
+        int maxResults = Math.min(limit, StudentService.MAX_PAGE_SIZE);
+
+        Flux<StudentRow> students;
+        if (!studentNameIndex.isReady()) {
+            students = studentRepository.findByNameContaining(name, maxResults);
+        } else {
+            // The index lives in memory, ranking is a few map lookups and safe on the event loop
+            List<Long> rankedIds = studentNameIndex.search(name, maxResults);
+            students = rankedIds.isEmpty() ? Flux.empty() : studentRepository.findAllWithSchoolByIdIn(rankedIds)
+                    .collectMap(StudentRow::id)
+                    .flatMapIterable(byId -> ranked(rankedIds, byId));
+        }
+        return ServerResponse.ok()
+                .contentType(contentType(request))
+                .body(students.map(StudentRow::toStudentDto), StudentDto.class);
+    }
+
+    private List<StudentRow> ranked(List<Long> rankedIds, Map<Long, StudentRow> byId) {
+        return rankedIds.stream()
+                .map(id -> {
+                    StudentRow row = byId.get(id);
+                    if (row == null) {
+                        // Row removed behind the index's back, e.g. by a school delete
+                        studentNameIndex.removeNow(id);
+                    }
+                    return row;
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Lists stream as a JSON array by default and as one document per line for NDJSON clients
+    private static MediaType contentType(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+}
@@ -0,0 +1,41 @@
+package com.javaguy.testing.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterparts of the {@code StudentRepository} read queries. Every query joins the
+ * school so a row maps to a {@code StudentDto} without a second round trip.
+ */
+public interface ReactiveStudentRepository extends R2dbcRepository<StudentRow, Long> {
+
+    String SELECT_WITH_SCHOOL = "SELECT s.id, s.firstname, s.lastname, s.email, sc.name AS school_name, s.created_at "
+            + "FROM students s JOIN schools sc ON sc.id = s.school_id ";
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE s.id > :afterId ORDER BY s.id LIMIT :limit")
+    Flux<StudentRow> findPageAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Query(SELECT_WITH_SCHOOL + "ORDER BY s.id")
+    Flux<StudentRow> streamAll();
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE s.id = :id")
+    Mono<StudentRow> findWithSchoolById(@Param("id") long id);
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE s.email = :email")
+    Mono<StudentRow> findWithSchoolByEmail(@Param("email") String email);
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE sc.name = :schoolName ORDER BY s.id")
+    Flux<StudentRow> findBySchoolName(@Param("schoolName") String schoolName);
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE s.id IN (:ids)")
+    Flux<StudentRow> findAllWithSchoolByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_WITH_SCHOOL + "WHERE LOWER(s.firstname) LIKE LOWER(CONCAT('%', :name, '%')) "
+            + "OR LOWER(s.lastname) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY s.id LIMIT :limit")
+    Flux<StudentRow> findByNameContaining(@Param("name") String name, @Param("limit") int limit);
+}
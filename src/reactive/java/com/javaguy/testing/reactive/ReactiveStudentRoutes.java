@@ -0,0 +1,54 @@
+package com.javaguy.testing.reactive;
+
+import com.javaguy.testing.dto.ErrorResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional routes of the reactive profile. Only the read endpoints exist here, writes stay on
+ * the servlet stack.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveStudentRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> studentRoutes(ReactiveStudentHandler handler) {
+        return route()
+                .path("/api/students", students -> students
+                        .GET("", ReactiveStudentRoutes::acceptsNdjson, handler::streamAllStudents)
+                        .GET("", handler::getAllStudents)
+                        .GET("/search", handler::searchStudents)
+                        .GET("/email/{email}", handler::getStudentByEmail)
+                        .GET("/school/{schoolName}", handler::getStudentsBySchool)
+                        .GET("/{id}", handler::getStudentById))
+                .onError(IllegalArgumentException.class, (e, request) -> ServerResponse.badRequest()
+                        .bodyValue(ErrorResponse.builder()
+                                .timestamp(LocalDateTime.now())
+                                .status(HttpStatus.BAD_REQUEST.value())
+                                .error("Bad Request")
+                                .code("BAD_REQUEST")
+                                .message(e.getMessage())
+                                .build()))
+                // Turns parse errors thrown while a handler assembles its pipeline into error signals
+                // the handler above can see
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)))
+                .build();
+    }
+
+    // accept(...) would also match a missing Accept header or */*, which must keep getting pages
+    private static boolean acceptsNdjson(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON);
+    }
+}
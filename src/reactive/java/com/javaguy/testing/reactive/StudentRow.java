@@ -0,0 +1,31 @@
+package com.javaguy.testing.reactive;
+
+import com.javaguy.testing.dto.StudentDto;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a student joined with its school name, as returned by
+ * {@link ReactiveStudentRepository}.
+ */
+@Table("students")
+public record StudentRow(@Id Long id,
+                         String firstname,
+                         String lastname,
+                         String email,
+                         String schoolName,
+                         LocalDateTime createdAt) {
+
+    public StudentDto toStudentDto() {
+        return StudentDto.builder()
+                .id(id)
+                .firstname(firstname)
+                .lastname(lastname)
+                .email(email)
+                .schoolName(schoolName)
+                .createdAt(createdAt)
+                .build();
+    }
+}
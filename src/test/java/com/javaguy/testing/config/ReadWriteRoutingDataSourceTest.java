@@ -0,0 +1,162 @@
+package com.javaguy.testing.config;
+
+import com.javaguy.testing.config.ReadWriteRoutingDataSource.Target;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.stopClient();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and everything else to the primary")
+    void shouldRouteByReadOnlyFlag() {
+        ReadWriteRoutingDataSource dataSource = routing(Duration.ofHours(1));
+
+        Object outsideTransaction = dataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object readOnly = dataSource.determineCurrentLookupKey();
+
+        assertAll(
+                () -> assertEquals(Target.PRIMARY, outsideTransaction),
+                () -> assertEquals(Target.REPLICA, readOnly)
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep a client's reads on the primary for the window after its committed write")
+    void shouldReadYourWritesAfterCommit() {
+        ReadWriteRoutingDataSource dataSource = routing(Duration.ofHours(1));
+        List<Long> reported = new ArrayList<>();
+        ReadWriteRoutingDataSource.startClient(0, reported::add);
+
+        complete(dataSource, TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object afterRollback = dataSource.determineCurrentLookupKey();
+
+        complete(dataSource, TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object afterCommit = dataSource.determineCurrentLookupKey();
+
+        ReadWriteRoutingDataSource noWindow = routing(Duration.ZERO);
+        complete(noWindow, TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object noWindowAfterCommit = noWindow.determineCurrentLookupKey();
+
+        startClient(0);
+        Object otherClient = dataSource.determineCurrentLookupKey();
+
+        assertAll(
+                () -> assertEquals(Target.REPLICA, afterRollback),
+                () -> assertEquals(Target.PRIMARY, afterCommit),
+                () -> assertEquals(Target.REPLICA, noWindowAfterCommit),
+                () -> assertEquals(Target.REPLICA, otherClient),
+                () -> assertEquals(2, reported.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Should route by the last write the client sends back")
+    void shouldRouteByClientLastWrite() {
+        ReadWriteRoutingDataSource dataSource = routing(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        long now = System.currentTimeMillis();
+
+        startClient(now - 1_000);
+        Object recent = dataSource.determineCurrentLookupKey();
+        startClient(now - Duration.ofHours(1).toMillis());
+        Object old = dataSource.determineCurrentLookupKey();
+        startClient(Long.MAX_VALUE);
+        Object future = dataSource.determineCurrentLookupKey();
+
+        assertAll(
+                () -> assertEquals(Target.PRIMARY, recent),
+                () -> assertEquals(Target.REPLICA, old),
+                () -> assertEquals(Target.PRIMARY, future),
+                () -> assertEquals(Target.REPLICA, routing(Duration.ZERO).determineCurrentLookupKey())
+        );
+    }
+
+    @Test
+    @DisplayName("Should not count writes outside of a client request, such as the outbox drain")
+    void shouldIgnoreWritesWithoutClient() {
+        ReadWriteRoutingDataSource dataSource = routing(Duration.ofHours(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        dataSource.markWrite();
+        int registered = TransactionSynchronizationManager.getSynchronizations().size();
+
+        assertEquals(0, registered);
+    }
+
+    @Test
+    @DisplayName("Should hand the client over to the thread a task runs on")
+    void shouldPropagateClient() throws InterruptedException {
+        ReadWriteRoutingDataSource dataSource = routing(Duration.ofHours(1));
+        startClient(System.currentTimeMillis());
+        Object[] target = new Object[1];
+        Runnable task = ReadWriteRoutingDataSource.propagateClient(() -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            target[0] = dataSource.determineCurrentLookupKey();
+        });
+
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertEquals(Target.PRIMARY, target[0]);
+    }
+
+    @Test
+    @DisplayName("Should only count data modifying statements as writes")
+    void shouldRecognizeWrites() {
+        assertAll(
+                () -> assertTrue(ReadWriteRoutingDataSource.isWrite("insert into students (id) values (?)")),
+                () -> assertTrue(ReadWriteRoutingDataSource.isWrite("  UPDATE students set email=? where id=?")),
+                () -> assertTrue(ReadWriteRoutingDataSource.isWrite("delete from outbox_events where id in (?)")),
+                () -> assertTrue(ReadWriteRoutingDataSource.isWrite("merge into schools using (values (?)) s")),
+                () -> assertFalse(ReadWriteRoutingDataSource.isWrite("select s1_0.id from students s1_0")),
+                () -> assertFalse(ReadWriteRoutingDataSource.isWrite("select next value for students_seq"))
+        );
+    }
+
+    private static void startClient(long lastWrite) {
+        ReadWriteRoutingDataSource.startClient(lastWrite, at -> {
+        });
+    }
+
+    private static ReadWriteRoutingDataSource routing(Duration window) {
+        return new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), window);
+    }
+
+    // Runs a read-write transaction that writes twice through the synchronization callbacks
+    private static void complete(ReadWriteRoutingDataSource dataSource, int status) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.initSynchronization();
+        dataSource.markWrite();
+        dataSource.markWrite();
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
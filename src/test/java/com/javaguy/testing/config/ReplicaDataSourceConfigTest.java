@@ -0,0 +1,206 @@
+package com.javaguy.testing.config;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.events.OutboxDispatcher;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the service layer against the two local H2 databases of the {@code replica} profile. The
+ * stand-in only replicates when asked, so every read-only call outside of a client request shows
+ * exactly what the replica holds.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.read-your-writes-window=1h",
+        "app.datasource.replica.stand-in.interval=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "replica"})
+class ReplicaDataSourceConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private H2ReplicationStandIn replicationStandIn;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        replicationStandIn.replicate();
+    }
+
+    @Test
+    @DisplayName("Should serve read-only transactions from the replica and writes from the primary")
+    void shouldReadFromReplica() {
+        SchoolDto school = schoolService.createSchool(SchoolDto.builder()
+                .name("Replica University")
+                .address("2 Lag Lane")
+                .build());
+        StudentDto student = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email("jane.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+
+        int beforeReplication = studentService.findPage(null, 10).getSize();
+        replicationStandIn.replicate();
+        int afterReplication = studentService.findPage(null, 10).getSize();
+
+        assertAll(
+                () -> assertEquals(1, studentRepository.count()),
+                () -> assertEquals(0, beforeReplication),
+                () -> assertEquals(1, afterReplication),
+                () -> assertEquals(student.getEmail(), studentService.findPage(null, 10).getContent().get(0).getEmail())
+        );
+    }
+
+    @Test
+    @DisplayName("Should not cache what a lagging replica returned")
+    void shouldKeepReplicaReadsOutOfTheCaches() {
+        SchoolDto school = schoolService.createSchool(SchoolDto.builder()
+                .name("Replica University")
+                .address("2 Lag Lane")
+                .build());
+        StudentDto student = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email("jane.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+        replicationStandIn.replicate();
+        studentService.createStudent(StudentDto.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .email("john.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+        studentService.updateStudent(student.getId(), StudentDto.builder()
+                .firstname("Janet")
+                .lastname("Doe")
+                .email("jane.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+        // Like the region-wide eviction of a school delete
+        entityManagerFactory.getCache().evict(Student.class);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long countBeforeReplication = readOnly.execute(status -> studentRepository.countBySchoolId(school.getId()));
+        String nameBeforeReplication = readOnly.execute(status -> studentRepository.findById(student.getId()).orElseThrow().getFirstname());
+        replicationStandIn.replicate();
+        long countAfterReplication = readOnly.execute(status -> studentRepository.countBySchoolId(school.getId()));
+        String nameAfterReplication = readOnly.execute(status -> studentRepository.findById(student.getId()).orElseThrow().getFirstname());
+
+        assertAll(
+                () -> assertEquals(1, countBeforeReplication),
+                () -> assertEquals("Jane", nameBeforeReplication),
+                () -> assertEquals(2, countAfterReplication),
+                () -> assertEquals("Janet", nameAfterReplication)
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep a new student searchable while the replica has not caught up")
+    void shouldNotPruneStudentsMissingOnTheReplica() {
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Replica University")
+                .address("2 Lag Lane")
+                .build());
+        studentService.createStudent(StudentDto.builder()
+                .firstname("Lagging")
+                .lastname("Lena")
+                .email("lena@test.com")
+                .schoolName("Replica University")
+                .build());
+        outboxDispatcher.poll();
+
+        int beforeReplication = studentService.searchByName("lena", 10).size();
+        replicationStandIn.replicate();
+        int afterReplication = studentService.searchByName("lena", 10).size();
+
+        assertAll(
+                () -> assertEquals(0, beforeReplication),
+                () -> assertEquals(1, afterReplication)
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep the reads of a client that sends back its last write on the primary")
+    void shouldReadYourWritesPerClient() throws Exception {
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Replica University")
+                .address("2 Lag Lane")
+                .build());
+
+        String lastWrite = mockMvc.perform(post("/api/students")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"firstname": "Jane", "lastname": "Doe", "email": "jane.doe@test.com",
+                                 "school_name": "Replica University"}
+                                """))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ReadYourWritesFilter.LAST_WRITE_HEADER))
+                .andReturn().getResponse().getHeader(ReadYourWritesFilter.LAST_WRITE_HEADER);
+
+        mockMvc.perform(get("/api/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(0));
+        mockMvc.perform(get("/api/students").header(ReadYourWritesFilter.LAST_WRITE_HEADER, lastWrite))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ReadYourWritesFilter.LAST_WRITE_HEADER))
+                .andExpect(jsonPath("$.size").value(1));
+
+        MvcResult stream = mockMvc.perform(get("/api/students")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header(ReadYourWritesFilter.LAST_WRITE_HEADER, lastWrite))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(stream))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jane.doe@test.com")));
+    }
+}
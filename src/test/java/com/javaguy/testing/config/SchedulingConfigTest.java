@@ -0,0 +1,28 @@
+package com.javaguy.testing.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SchedulingConfigTest {
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+    @Autowired
+    @Qualifier(SchedulingConfig.MAINTENANCE_SCHEDULER)
+    private TaskScheduler maintenanceScheduler;
+
+    @Test
+    @DisplayName("Should keep the auto-configured scheduler next to the maintenance scheduler")
+    void shouldKeepMaintenanceJobsOffTheDefaultScheduler() {
+        assertNotSame(taskScheduler, maintenanceScheduler);
+    }
+}
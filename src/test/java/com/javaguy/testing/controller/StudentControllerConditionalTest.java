@@ -0,0 +1,123 @@
+package com.javaguy.testing.controller;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentControllerConditionalTest {
+
+    private static final String UPDATE = """
+            {"firstname":"Johnny","lastname":"Doe","email":"john.doe@test.com","school_name":"Etag University"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private StudentDto student;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Etag University")
+                .address("304 Cache Lane")
+                .build());
+        student = studentService.createStudent(StudentDto.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .email("john.doe@test.com")
+                .schoolName("Etag University")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without a body while the student is unchanged")
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/students/{id}", student.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult byEmail = mockMvc.perform(get("/api/students/email/{email}", student.getEmail())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        assertAll(
+                () -> assertEquals("\"" + student.getId() + ".0\"", etag),
+                () -> assertEquals(etag, byEmail.getResponse().getHeader(HttpHeaders.ETAG)),
+                () -> assertEquals(0, byEmail.getResponse().getContentLength())
+        );
+
+        studentService.updateStudent(student.getId(), StudentDto.builder()
+                .firstname("Jonathan")
+                .lastname("Doe")
+                .email(student.getEmail())
+                .build());
+
+        mockMvc.perform(get("/api/students/{id}", student.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + student.getId() + ".1\""))
+                .andExpect(jsonPath("$.firstname").value("Jonathan"));
+    }
+
+    @Test
+    @DisplayName("Should update only when If-Match carries the current version")
+    void shouldHonourIfMatchOnUpdate() throws Exception {
+        String current = "\"" + student.getId() + ".0\"";
+
+        mockMvc.perform(put("/api/students/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, current)
+                        .content(UPDATE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + student.getId() + ".1\""));
+
+        mockMvc.perform(put("/api/students/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, current)
+                        .content(UPDATE))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("STUDENT_MODIFIED"));
+
+        mockMvc.perform(put("/api/students/{id}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .content(UPDATE))
+                .andExpect(status().isOk());
+    }
+}
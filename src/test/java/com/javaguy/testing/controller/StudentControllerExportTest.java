@@ -0,0 +1,149 @@
+package com.javaguy.testing.controller;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentControllerExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private StudentDto john;
+    private StudentDto jane;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Export University")
+                .address("1 Stream Road")
+                .build());
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Other College")
+                .address("2 Side Street")
+                .build());
+        john = studentService.createStudent(StudentDto.builder()
+                .firstname("John")
+                .lastname("Doe, Jr.")
+                .email("john.doe@test.com")
+                .schoolName("Export University")
+                .build());
+        jane = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Smith")
+                .email("jane.smith@test.com")
+                .schoolName("Export University")
+                .build());
+        studentService.createStudent(StudentDto.builder()
+                .firstname("Bob")
+                .lastname("Other")
+                .email("bob.other@test.com")
+                .schoolName("Other College")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should export the roster of one school as quoted CSV in id order")
+    void shouldExportCsv() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/students/school/{name}/export", "Export University")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertAll(
+                () -> assertEquals(3, lines.length),
+                () -> assertEquals("id,firstname,lastname,email,school_name,created_at", lines[0]),
+                () -> assertTrue(lines[1].startsWith(john.getId() + ",John,\"Doe, Jr.\",john.doe@test.com,Export University,")),
+                () -> assertTrue(lines[2].startsWith(jane.getId() + ",Jane,Smith,jane.smith@test.com,Export University,")),
+                () -> assertTrue(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION).startsWith("attachment"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should gzip the NDJSON export when the client accepts it")
+    void shouldExportGzippedNdjson() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/students/school/{name}/export", "Export University")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        String[] lines = gunzip(result.getResponse().getContentAsByteArray()).split("\n");
+        assertAll(
+                () -> assertEquals(2, lines.length),
+                () -> assertTrue(lines[0].contains("\"email\":\"john.doe@test.com\"")),
+                () -> assertTrue(lines[1].contains("\"email\":\"jane.smith@test.com\""))
+        );
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown school before streaming starts")
+    void shouldReturnNotFoundForUnknownSchool() throws Exception {
+        mockMvc.perform(get("/api/students/school/{name}/export", "Nowhere"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should reject an unsupported export format")
+    void shouldRejectUnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/students/school/{name}/export", "Export University")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.javaguy.testing.events;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.exception.StudentAlreadyExistsException;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+import com.javaguy.testing.repository.OutboxEventRepository;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.outbox.retry-delay=0s")
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private ChangeEventOutbox changeEventOutbox;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CapturingSubscriber subscriber;
+    @Autowired
+    private FlakySubscriber flakySubscriber;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxDispatcher.dispatch();
+        subscriber.events.clear();
+        flakySubscriber.events.clear();
+    }
+
+    @Test
+    @DisplayName("Should deliver committed changes in write order and empty the outbox")
+    void shouldDeliverInCommitOrder() {
+        SchoolDto school = schoolService.createSchool(SchoolDto.builder()
+                .name("Outbox Academy")
+                .address("1 Event Street")
+                .build());
+        StudentDto created = studentService.createStudent(student("first@test.com"));
+        studentService.updateStudent(created.getId(), student("renamed@test.com"));
+        studentService.deleteByEmail("renamed@test.com");
+
+        assertEquals(4, outboxDispatcher.dispatch());
+
+        List<ChangeEvent> events = subscriber.events;
+        assertAll(
+                () -> assertEquals(List.of(EventType.CREATED, EventType.CREATED, EventType.UPDATED, EventType.DELETED),
+                        events.stream().map(ChangeEvent::type).toList()),
+                () -> assertEquals(AggregateType.SCHOOL, events.get(0).aggregateType()),
+                () -> assertEquals(school.getId(), events.get(0).aggregateId()),
+                () -> assertEquals(created.getId(), events.get(1).aggregateId()),
+                () -> assertEquals("renamed@test.com", events.get(2).aggregateKey()),
+                () -> assertEquals(created.getId(), events.get(3).aggregateId()),
+                () -> assertEquals("renamed@test.com", events.get(3).aggregateKey()),
+                () -> assertEquals(0, outboxEventRepository.count()),
+                () -> assertEquals(0, outboxDispatcher.dispatch())
+        );
+        assertTrue(meterRegistry.get("outbox.delivery.lag").tag("subscriber", "CapturingSubscriber").timer().count() >= 4);
+    }
+
+    @Test
+    @DisplayName("Should hold back events that committed ahead of a lower id still in flight")
+    void shouldWaitForLowerIdsStillInFlight() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            int deliveredWhileOpen = transactionTemplate.execute(status -> {
+                changeEventOutbox.append(AggregateType.SCHOOL, 1L, "first", EventType.CREATED);
+                return join(otherThread.submit(() -> {
+                    transactionTemplate.executeWithoutResult(inner ->
+                            changeEventOutbox.append(AggregateType.SCHOOL, 2L, "second", EventType.CREATED));
+                    return outboxDispatcher.dispatch();
+                }));
+            });
+
+            assertAll(
+                    () -> assertEquals(0, deliveredWhileOpen),
+                    () -> assertEquals(2, outboxDispatcher.dispatch()),
+                    () -> assertEquals(List.of("first", "second"),
+                            subscriber.events.stream().map(ChangeEvent::aggregateKey).toList())
+            );
+        } finally {
+            otherThread.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should retry a failing subscriber without holding back the others")
+    void shouldRetryFailingSubscriber() {
+        flakySubscriber.failNext = true;
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Outbox Academy")
+                .address("1 Event Street")
+                .build());
+
+        outboxDispatcher.dispatch();
+        int deliveredBeforeRetry = flakySubscriber.events.size();
+        long keptForRetry = outboxEventRepository.count();
+        outboxDispatcher.dispatch();
+
+        assertAll(
+                () -> assertEquals(1, subscriber.events.size()),
+                () -> assertEquals(0, deliveredBeforeRetry),
+                () -> assertEquals(1, keptForRetry),
+                () -> assertEquals(1, flakySubscriber.events.size()),
+                () -> assertEquals(0, outboxEventRepository.count())
+        );
+    }
+
+    @Test
+    @DisplayName("Should not record events for writes that rolled back")
+    void shouldSkipRolledBackWrites() {
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Outbox Academy")
+                .address("1 Event Street")
+                .build());
+        studentService.createStudent(student("taken@test.com"));
+        assertThrows(StudentAlreadyExistsException.class, () -> studentService.createStudent(student("taken@test.com")));
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(2, subscriber.events.size());
+    }
+
+    private static StudentDto student(String email) {
+        return StudentDto.builder()
+                .firstname("Olive")
+                .lastname("Outbox")
+                .email(email)
+                .schoolName("Outbox Academy")
+                .build();
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class SubscriberConfig {
+
+        @Bean
+        CapturingSubscriber capturingSubscriber() {
+            return new CapturingSubscriber();
+        }
+
+        @Bean
+        FlakySubscriber flakySubscriber() {
+            return new FlakySubscriber();
+        }
+    }
+
+    static class CapturingSubscriber implements ChangeEventSubscriber {
+
+        private final List<ChangeEvent> events = new ArrayList<>();
+
+        @Override
+        public void onEvents(List<ChangeEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+
+    static class FlakySubscriber implements ChangeEventSubscriber {
+
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public void onEvents(List<ChangeEvent> batch) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            events.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.javaguy.testing.exception;
+
+import com.javaguy.testing.dto.ErrorResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    @DisplayName("Should not capture a stack trace for domain exceptions")
+    void shouldNotCaptureStackTrace() {
+        StudentNotFoundException exception = new StudentNotFoundException("Student not found with ID: 1");
+
+        assertAll(
+                () -> assertEquals(0, exception.getStackTrace().length),
+                () -> assertEquals(ErrorCode.STUDENT_NOT_FOUND, exception.getErrorCode())
+        );
+    }
+
+    @Test
+    @DisplayName("Should map error codes to status, error and code")
+    void shouldMapErrorCodeToResponse() {
+        ResponseEntity<ErrorResponse> notFound =
+                handler.handleApplicationException(new SchoolNotFoundException("School not found with ID: 7"));
+        ResponseEntity<ErrorResponse> conflict =
+                handler.handleApplicationException(new StudentAlreadyExistsException("Student with email a@b.com already exists"));
+
+        assertAll(
+                () -> assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode()),
+                () -> assertEquals("School Not Found", notFound.getBody().getError()),
+                () -> assertEquals("SCHOOL_NOT_FOUND", notFound.getBody().getCode()),
+                () -> assertEquals("School not found with ID: 7", notFound.getBody().getMessage()),
+                () -> assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode()),
+                () -> assertEquals("STUDENT_ALREADY_EXISTS", conflict.getBody().getCode())
+        );
+    }
+
+    @Test
+    @DisplayName("Should only report unique constraint violations as conflicts")
+    void shouldOnlyMapUniqueConstraintViolationsToConflict() {
+        ResponseEntity<ErrorResponse> duplicateSchool = handler.handleDataIntegrityViolationException(new DataIntegrityViolationException(
+                "duplicate", new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_SCHOOLS_NAME_INDEX_1 ON PUBLIC.SCHOOLS(NAME)\"")));
+        ResponseEntity<ErrorResponse> missingSchool = handler.handleDataIntegrityViolationException(new DataIntegrityViolationException(
+                "foreign key", new RuntimeException("Referential integrity constraint violation: \"FK_STUDENTS_SCHOOL\"")));
+
+        assertAll(
+                () -> assertEquals(HttpStatus.CONFLICT, duplicateSchool.getStatusCode()),
+                () -> assertEquals("SCHOOL_ALREADY_EXISTS", duplicateSchool.getBody().getCode()),
+                () -> assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, missingSchool.getStatusCode())
+        );
+    }
+
+    @Test
+    @DisplayName("Should let one line per key through and count the suppressed ones")
+    void shouldRateLimitPerKey() {
+        RateLimitedLog log = new RateLimitedLog(Duration.ofHours(1));
+
+        assertAll(
+                () -> assertEquals(0, log.tryAcquire("STUDENT_NOT_FOUND")),
+                () -> assertEquals(RateLimitedLog.SUPPRESSED, log.tryAcquire("STUDENT_NOT_FOUND")),
+                () -> assertEquals(RateLimitedLog.SUPPRESSED, log.tryAcquire("STUDENT_NOT_FOUND")),
+                () -> assertEquals(0, log.tryAcquire("SCHOOL_NOT_FOUND"))
+        );
+    }
+}
@@ -75,4 +75,46 @@ class StudentMapperTest {
 
         assertThrows(IllegalArgumentException.class, () -> studentMapper.toStudent(dto));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should trim names and lower-case the email once")
+    void shouldNormalizeInput() {
+        StudentDto dto = StudentDto.builder()
+                .firstname("  John ")
+                .lastname("Doe")
+                .email(" John.Doe@Gmail.COM  ")
+                .schoolName("MIT")
+                .build();
+
+        Student student = studentMapper.toStudent(dto);
+
+        assertAll(
+                () -> assertEquals("John", student.getFirstname()),
+                () -> assertSame(dto.getLastname(), student.getLastname()),
+                () -> assertEquals("john.doe@gmail.com", student.getEmail())
+        );
+    }
+
+    @Test
+    @DisplayName("Should leave the student untouched when the update is invalid")
+    void shouldNotPartiallyApplyInvalidUpdate() {
+        Student student = Student.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .email("john.doe@gmail.com")
+                .build();
+        StudentDto dto = StudentDto.builder()
+                .firstname("Johnny")
+                .lastname("Doe")
+                .email("not-an-email")
+                .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> studentMapper.updateStudentFromDto(dto, student));
+
+        assertAll(
+                () -> assertEquals("Email must be valid", exception.getMessage()),
+                () -> assertEquals("John", student.getFirstname())
+        );
+    }
+}
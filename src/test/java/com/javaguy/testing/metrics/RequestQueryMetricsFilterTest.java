@@ -0,0 +1,100 @@
+package com.javaguy.testing.metrics;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.service.SchoolService;
+import com.javaguy.testing.service.StudentService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestQueryMetricsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private StudentDto student;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        meterRegistry.clear();
+
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Metrics University")
+                .address("1 Gauge Road")
+                .build());
+        student = studentService.createStudent(StudentDto.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .email("john.doe@test.com")
+                .schoolName("Metrics University")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should record statements and entity loads per request under the route pattern")
+    void shouldRecordQueryCountsPerRequest() throws Exception {
+        mockMvc.perform(get("/api/students/school/{schoolName}", "Metrics University"))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find("hibernate.request.statements")
+                .tag("uri", "/api/students/school/{schoolName}")
+                .summary();
+        DistributionSummary entityLoads = meterRegistry.find("hibernate.request.entity.loads")
+                .tag("uri", "/api/students/school/{schoolName}")
+                .summary();
+
+        assertAll(
+                () -> assertNotNull(statements),
+                () -> assertEquals(1, statements.count()),
+                () -> assertEquals(1.0, statements.totalAmount()),
+                () -> assertNotNull(entityLoads),
+                () -> assertTrue(entityLoads.totalAmount() >= 1)
+        );
+    }
+
+    @Test
+    @DisplayName("Should time service methods by class and method")
+    void shouldTimeServiceMethods() {
+        studentService.findById(student.getId());
+
+        Timer timer = meterRegistry.find("students.service")
+                .tag("class", StudentService.class.getName())
+                .tag("method", "findById")
+                .timer();
+
+        assertAll(
+                () -> assertNotNull(timer),
+                () -> assertEquals(1, timer.count())
+        );
+    }
+}
@@ -0,0 +1,111 @@
+package com.javaguy.testing.repository;
+
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class SchoolRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private School havard;
+    private School mit;
+
+    @BeforeEach
+    void setUp() {
+        havard = entityManager.persist(School.builder()
+                .address("123 Main St")
+                .name("Havard")
+                .build());
+        mit = entityManager.persist(School.builder()
+                .address("77 Massachusetts Ave")
+                .name("MIT")
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Student.builder()
+                    .firstname("John")
+                    .lastname("Doe" + i)
+                    .email("johndoe" + i + "@gmail.com")
+                    .school(havard)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should assign pooled ids on persist and insert schools in one batch on flush")
+    void shouldAssignPooledIdsAndBatchInserts() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<School> schools = schoolRepository.saveAll(List.of(
+                School.builder().name("Yale").address("1 New Haven Rd").build(),
+                School.builder().name("Brown").address("2 Providence Rd").build(),
+                School.builder().name("Cornell").address("3 Ithaca Rd").build()));
+
+        assertAll(
+                () -> assertTrue(schools.stream().allMatch(school -> school.getId() != null)),
+                () -> assertEquals(0, statistics.getEntityInsertCount())
+        );
+
+        entityManager.flush();
+
+        assertAll(
+                () -> assertEquals(3, statistics.getEntityInsertCount()),
+                () -> assertEquals(1, statistics.getPrepareStatementCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should count students per school in a single query")
+    void shouldCountStudentsPerSchoolInSingleQuery() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        List<SchoolSummary> summaries = schoolRepository.findAllSummaries();
+
+        // then
+        assertAll(
+                () -> assertEquals(2, summaries.size()),
+                () -> assertEquals(3L, summaries.get(0).getStudentCount()),
+                () -> assertEquals(0L, summaries.get(1).getStudentCount()),
+                () -> assertEquals(1, statistics.getPrepareStatementCount()),
+                () -> assertEquals(0, statistics.getCollectionLoadCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should find school summary by name")
+    void shouldFindSummaryByName() {
+        // when
+        Optional<SchoolSummary> summary = schoolRepository.findSummaryByName(mit.getName());
+
+        // then
+        assertTrue(summary.isPresent());
+        assertEquals(mit.getId(), summary.get().getId());
+        assertEquals(0L, summary.get().getStudentCount());
+    }
+}
@@ -2,12 +2,15 @@ package com.javaguy.testing.repository;
 
 import com.javaguy.testing.models.School;
 import com.javaguy.testing.models.Student;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -84,6 +87,56 @@ class StudentRepositoryTest {
     assertTrue(students.stream().anyMatch(s -> s.getSchool().getName().equals(school.getName())));
     }
 
+    @Test
+    @DisplayName("Should load school names in the same query regardless of result size")
+    void shouldNotIssueExtraQueriesPerStudentForSchoolName() {
+        long smallResult = countStatementsForSchoolNames();
+
+        for (int i = 0; i < 10; i++) {
+            School other = School.builder()
+                    .address(i + " Side St")
+                    .name("School " + i)
+                    .build();
+            entityManager.persist(other);
+            entityManager.persist(Student.builder()
+                    .firstname("Student")
+                    .lastname("Number" + i)
+                    .email("student" + i + "@test.com")
+                    .school(other)
+                    .build());
+        }
+        entityManager.flush();
+
+        long largeResult = countStatementsForSchoolNames();
+
+        assertEquals(1, smallResult);
+        assertEquals(smallResult, largeResult);
+    }
+
+    private long countStatementsForSchoolNames() {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        studentRepository.findAll().forEach(s -> assertNotNull(s.getSchool().getName()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("Should return the next page after the keyset cursor")
+    void shouldFindPageAfterCursor() {
+        // when
+        List<Student> firstPage = studentRepository.findPageAfter(0L, Limit.of(1));
+        List<Student> secondPage = studentRepository.findPageAfter(firstPage.get(0).getId(), Limit.of(1));
+        List<Student> lastPage = studentRepository.findPageAfter(secondPage.get(0).getId(), Limit.of(1));
+
+        // then
+        assertEquals(student1.getId(), firstPage.get(0).getId());
+        assertEquals(student2.getId(), secondPage.get(0).getId());
+        assertTrue(lastPage.isEmpty());
+    }
+
     @Test
     @DisplayName("Should save and retrieve student")
     void shouldSaveAndRetrieveStudent() {
@@ -116,4 +169,39 @@ class StudentRepositoryTest {
         Optional<Student> retrieved = studentRepository.findById(studentId);
         assertTrue(retrieved.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should delete all students of a school with one statement")
+    void shouldBulkDeleteBySchoolWithSingleStatement() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        int bySchool = studentRepository.deleteBySchoolId(school.getId());
+
+        assertAll(
+                () -> assertEquals(2, bySchool),
+                () -> assertEquals(1, statistics.getPrepareStatementCount()),
+                () -> assertEquals(0, statistics.getEntityLoadCount()),
+                () -> assertEquals(0, studentRepository.count())
+        );
+    }
+
+    @Test
+    @DisplayName("Should find students with their school by a list of emails in one query")
+    void shouldFindAllWithSchoolByEmailIn() {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Student> students = studentRepository.findAllWithSchoolByEmailIn(
+                List.of(student2.getEmail(), "nonexistent@test.com", student1.getEmail()));
+        students.forEach(student -> student.getSchool().getName());
+
+        assertAll(
+                () -> assertEquals(2, students.size()),
+                () -> assertEquals(1, statistics.getPrepareStatementCount())
+        );
+    }
+}
@@ -0,0 +1,68 @@
+package com.javaguy.testing.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SchoolRosterIndexTest {
+
+    private SchoolRosterIndex schoolRosterIndex;
+
+    @BeforeEach
+    void setUp() {
+        schoolRosterIndex = new SchoolRosterIndex(null, mock(PlatformTransactionManager.class));
+        schoolRosterIndex.add(1L, 30L);
+        schoolRosterIndex.add(1L, 10L);
+        schoolRosterIndex.add(1L, 20L);
+        schoolRosterIndex.add(2L, 40L);
+    }
+
+    @Test
+    @DisplayName("Should keep rosters sorted and counted per school")
+    void shouldKeepSortedRosters() {
+        schoolRosterIndex.add(1L, 20L);
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{10L, 20L, 30L}, schoolRosterIndex.studentIds(1L)),
+                () -> assertEquals(3, schoolRosterIndex.count(1L)),
+                () -> assertEquals(1, schoolRosterIndex.count(2L)),
+                () -> assertEquals(2, schoolRosterIndex.schools())
+        );
+    }
+
+    @Test
+    @DisplayName("Should move and remove students without knowing their school")
+    void shouldMoveAndRemoveStudents() {
+        schoolRosterIndex.move(20L, 1L, 2L);
+        schoolRosterIndex.remove(40L);
+
+        assertAll(
+                () -> assertArrayEquals(new long[]{10L, 30L}, schoolRosterIndex.studentIds(1L)),
+                () -> assertArrayEquals(new long[]{20L}, schoolRosterIndex.studentIds(2L))
+        );
+    }
+
+    @Test
+    @DisplayName("Should answer unknown and deleted schools with an empty roster")
+    void shouldAnswerUnknownSchoolsWithEmptyRoster() {
+        schoolRosterIndex.removeSchool(1L);
+
+        assertAll(
+                () -> assertEquals(0, schoolRosterIndex.count(1L)),
+                () -> assertArrayEquals(new long[0], schoolRosterIndex.studentIds(1L)),
+                () -> assertEquals(0, schoolRosterIndex.count(99L))
+        );
+    }
+
+    @Test
+    @DisplayName("Should hand out copies of the roster")
+    void shouldHandOutCopies() {
+        schoolRosterIndex.studentIds(1L)[0] = 99L;
+
+        assertArrayEquals(new long[]{10L, 20L, 30L}, schoolRosterIndex.studentIds(1L));
+    }
+}
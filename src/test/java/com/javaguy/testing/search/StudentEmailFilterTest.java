@@ -0,0 +1,125 @@
+package com.javaguy.testing.search;
+
+import com.javaguy.testing.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentEmailFilterTest {
+
+    private static final int STUDENTS = 10_000;
+
+    private StudentRepository studentRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private StudentEmailFilter studentEmailFilter;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.count()).thenReturn((long) STUDENTS);
+        when(studentRepository.streamEmails()).thenAnswer(invocation -> IntStream.range(0, STUDENTS)
+                .mapToObj(i -> "student" + i + "@test.com"));
+        meterRegistry = new SimpleMeterRegistry();
+        studentEmailFilter = new StudentEmailFilter(studentRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 0.01, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Should treat every email as possibly taken until loaded")
+    void shouldAnswerPossiblyTakenUntilLoaded() {
+        assertAll(
+                () -> assertFalse(studentEmailFilter.isReady()),
+                () -> assertTrue(studentEmailFilter.mightContain("anyone@test.com"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should never rule out a loaded or added email")
+    void shouldHaveNoFalseNegatives() {
+        studentEmailFilter.rebuild();
+        studentEmailFilter.add("late@test.com");
+
+        assertAll(
+                () -> assertTrue(IntStream.range(0, STUDENTS)
+                        .allMatch(i -> studentEmailFilter.mightContain("student" + i + "@test.com"))),
+                () -> assertTrue(studentEmailFilter.mightContain("late@test.com"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should keep an email added while a rebuild is scanning")
+    void shouldKeepEmailsAddedDuringRebuild() {
+        studentEmailFilter.rebuild();
+        when(studentRepository.streamEmails()).thenAnswer(invocation -> IntStream.range(0, STUDENTS)
+                .peek(i -> {
+                    if (i == STUDENTS / 2) {
+                        studentEmailFilter.add("during@test.com");
+                    }
+                })
+                .mapToObj(i -> "student" + i + "@test.com"));
+
+        studentEmailFilter.rebuild();
+
+        assertTrue(studentEmailFilter.mightContain("during@test.com"));
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate and count saved lookups")
+    void shouldKeepFalsePositivesNearConfiguredRate() {
+        studentEmailFilter.rebuild();
+
+        long positives = IntStream.range(0, STUDENTS)
+                .filter(i -> studentEmailFilter.mightContain("absent" + i + "@test.com"))
+                .count();
+
+        assertAll(
+                () -> assertTrue(positives < STUDENTS * 0.02, () -> positives + " false positives"),
+                () -> assertEquals(STUDENTS - positives,
+                        meterRegistry.get("students.email.filter.saved").counter().count()),
+                () -> assertTrue(studentEmailFilter.expectedFalsePositiveRate() < 0.01)
+        );
+    }
+
+    @Test
+    @DisplayName("Should rebuild once more emails were added than it was sized for")
+    void shouldRebuildWhenOverfilled() {
+        when(studentRepository.count()).thenReturn(0L);
+        when(studentRepository.streamEmails()).thenAnswer(invocation -> Stream.empty());
+        studentEmailFilter.rebuild();
+        studentEmailFilter.maintain();
+        verify(studentRepository, times(1)).streamEmails();
+
+        IntStream.rangeClosed(0, 1024).forEach(i -> studentEmailFilter.add("new" + i + "@test.com"));
+        studentEmailFilter.maintain();
+
+        verify(studentRepository, times(2)).streamEmails();
+    }
+
+    @Test
+    @DisplayName("Should shed deleted emails on rebuild")
+    void shouldShedDeletedEmailsOnRebuild() {
+        studentEmailFilter.rebuild();
+        when(studentRepository.count()).thenReturn(0L);
+        when(studentRepository.streamEmails()).thenReturn(Stream.empty());
+
+        studentEmailFilter.rebuild();
+        studentEmailFilter.recordLookup(false);
+
+        assertAll(
+                () -> assertFalse(studentEmailFilter.mightContain("student1@test.com")),
+                () -> assertEquals(0.5, studentEmailFilter.observedFalsePositiveRate())
+        );
+    }
+}
@@ -0,0 +1,128 @@
+package com.javaguy.testing.search;
+
+import com.javaguy.testing.events.ChangeEvent;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
+import com.javaguy.testing.repository.StudentName;
+import com.javaguy.testing.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StudentNameIndexTest {
+
+    private StudentNameIndex studentNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        studentNameIndex = new StudentNameIndex(null, mock(PlatformTransactionManager.class));
+        studentNameIndex.index(1L, "John", "Doe");
+        studentNameIndex.index(2L, "Johnny", "Smith");
+        studentNameIndex.index(3L, "Jane", "Johnson");
+        studentNameIndex.index(4L, "José", "Álvarez");
+    }
+
+    @Test
+    @DisplayName("Should rank exact matches before prefix and substring matches")
+    void shouldRankExactBeforePrefixAndSubstring() {
+        List<Long> ids = studentNameIndex.search("john", 10);
+
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    @DisplayName("Should find names despite a typo")
+    void shouldFindFuzzyMatches() {
+        List<Long> ids = studentNameIndex.search("Jonson", 10);
+
+        assertEquals(List.of(3L), ids);
+    }
+
+    @Test
+    @DisplayName("Should find infix matches shorter than a trigram")
+    void shouldFindShortInfixMatches() {
+        assertAll(
+                () -> assertEquals(List.of(1L, 2L, 3L), studentNameIndex.search("oh", 10)),
+                () -> assertEquals(List.of(3L), studentNameIndex.search("nso", 10))
+        );
+    }
+
+    @Test
+    @DisplayName("Should ignore case and accents")
+    void shouldIgnoreCaseAndAccents() {
+        assertEquals(List.of(4L), studentNameIndex.search("JOSE alv", 10));
+    }
+
+    @Test
+    @DisplayName("Should honour the result limit")
+    void shouldHonourLimit() {
+        assertEquals(List.of(1L), studentNameIndex.search("john", 1));
+    }
+
+    @Test
+    @DisplayName("Should forget removed and renamed students")
+    void shouldForgetRemovedAndRenamedStudents() {
+        studentNameIndex.removeNow(1L);
+        studentNameIndex.index(2L, "Bob", "Smith");
+
+        assertAll(
+                () -> assertEquals(List.of(3L), studentNameIndex.search("john", 10)),
+                () -> assertEquals(List.of(2L), studentNameIndex.search("bob", 10)),
+                () -> assertEquals(List.of(3L), studentNameIndex.search("oh", 10)),
+                () -> assertEquals(3, studentNameIndex.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Should apply a batch of change events with one name lookup")
+    void shouldApplyChangeEvents() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        StudentNameIndex index = new StudentNameIndex(studentRepository, mock(PlatformTransactionManager.class));
+        index.index(1L, "John", "Doe");
+        when(studentRepository.findNamesByIdIn(Set.of(5L))).thenReturn(List.of(new Name(5L, "Otto", "Outbox")));
+
+        index.onEvents(List.of(
+                event(1, 5L, EventType.CREATED),
+                event(2, 5L, EventType.UPDATED),
+                event(3, 6L, EventType.CREATED),
+                event(4, 6L, EventType.DELETED),
+                event(5, 1L, EventType.DELETED)));
+
+        assertAll(
+                () -> assertEquals(List.of(5L), index.search("otto", 10)),
+                () -> assertEquals(List.of(), index.search("john", 10)),
+                () -> assertEquals(1, index.size())
+        );
+        verify(studentRepository, times(1)).findNamesByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Should only drop missed ids the primary no longer has")
+    void shouldRemoveOnlyMissingStudents() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        StudentNameIndex index = new StudentNameIndex(studentRepository, mock(PlatformTransactionManager.class));
+        index.index(1L, "John", "Doe");
+        index.index(2L, "Johnny", "Smith");
+        when(studentRepository.findNamesByIdIn(List.of(1L, 2L))).thenReturn(List.of(new Name(2L, "Johnny", "Smith")));
+
+        index.removeMissing(List.of(1L, 2L));
+
+        assertEquals(List.of(2L), index.search("john", 10));
+    }
+
+    private static ChangeEvent event(long id, Long studentId, EventType type) {
+        return new ChangeEvent(id, AggregateType.STUDENT, studentId, null, type, Instant.now());
+    }
+
+    private record Name(Long getId, String getFirstname, String getLastname) implements StudentName {
+    }
+}
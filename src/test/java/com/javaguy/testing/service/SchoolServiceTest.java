@@ -0,0 +1,78 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.exception.SchoolNotFoundException;
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SchoolServiceTest {
+
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should resolve a school by name from the cache after the first lookup")
+    void shouldCacheSchoolByName() {
+        SchoolDto created = schoolService.createSchool(SchoolDto.builder()
+                .name("Cached College")
+                .address("1 Cache Lane")
+                .build());
+
+        School first = schoolService.findByName("Cached College");
+        statistics.clear();
+        School second = schoolService.findByName("Cached College");
+
+        assertAll(
+                () -> assertEquals(created.getId(), first.getId()),
+                () -> assertEquals(first.getId(), second.getId()),
+                () -> assertEquals(0, statistics.getPrepareStatementCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should evict cached schools when a school is deleted")
+    void shouldEvictOnDelete() {
+        SchoolDto created = schoolService.createSchool(SchoolDto.builder()
+                .name("Doomed Academy")
+                .address("2 Cache Lane")
+                .build());
+        schoolService.findByName("Doomed Academy");
+
+        schoolService.deleteSchool(created.getId());
+
+        assertThrows(SchoolNotFoundException.class, () -> schoolService.findByName("Doomed Academy"));
+    }
+}
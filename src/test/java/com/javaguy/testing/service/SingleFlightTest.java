@@ -0,0 +1,156 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.config.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 16;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(mock(PlatformTransactionManager.class), meterRegistry,
+            routing(null));
+
+    @Test
+    @DisplayName("Should run one loader for concurrent calls with the same key and share its result")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("load", "key", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return new Object();
+                })));
+            }
+            awaitFollowers(THREADS - 1);
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertAll(
+                () -> assertEquals(1, loads.get()),
+                () -> assertEquals(1, count("leader")),
+                () -> assertEquals(THREADS - 1, count("follower"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should hand the leader's exception to every follower and forget the failed call")
+    void shouldShareFailures() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("load", "key", () -> {
+                    await(release);
+                    throw new IllegalStateException("boom");
+                })));
+            }
+            awaitFollowers(THREADS - 1);
+            release.countDown();
+
+            for (Future<Object> result : results) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+
+        assertEquals("fresh", singleFlight.execute("load", "key", () -> "fresh"));
+    }
+
+    @Test
+    @DisplayName("Should not coalesce calls with different keys")
+    void shouldKeepKeysApart() {
+        assertAll(
+                () -> assertEquals("a", singleFlight.execute("load", "a", () -> "a")),
+                () -> assertEquals("b", singleFlight.execute("load", "b", () -> "b")),
+                () -> assertEquals(2, count("leader")),
+                () -> assertEquals(0, count("follower"))
+        );
+    }
+
+    @Test
+    @DisplayName("Should not let a caller reading from the primary join a leader reading from the replica")
+    void shouldKeepReadTargetsApart() throws Exception {
+        SingleFlight routed = new SingleFlight(mock(PlatformTransactionManager.class), meterRegistry,
+                routing(new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), Duration.ofHours(1))));
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<String> replica = executor.submit(() -> routed.execute("load", "key", () -> {
+                leading.countDown();
+                await(release);
+                return "replica";
+            }));
+            assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+            ReadWriteRoutingDataSource.startClient(System.currentTimeMillis(), lastWrite -> {
+            });
+            try {
+                assertEquals("primary", routed.execute("load", "key", () -> "primary"));
+            } finally {
+                ReadWriteRoutingDataSource.stopClient();
+                release.countDown();
+            }
+            assertEquals("replica", replica.get(5, TimeUnit.SECONDS));
+        }
+
+        assertAll(
+                () -> assertEquals(2, count("leader")),
+                () -> assertEquals(0, count("follower"))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<ReadWriteRoutingDataSource> routing(ReadWriteRoutingDataSource routing) {
+        ObjectProvider<ReadWriteRoutingDataSource> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(routing);
+        return provider;
+    }
+
+    private void awaitFollowers(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count("follower") < followers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private double count(String role) {
+        return meterRegistry.counter("singleflight.calls", "operation", "load", "role", role).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
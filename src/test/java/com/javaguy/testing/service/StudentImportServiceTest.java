@@ -0,0 +1,147 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.dto.BulkImportResultDto;
+import com.javaguy.testing.dto.BulkImportRowDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.models.School;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.search.StudentEmailFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentImportServiceTest {
+
+    @Autowired
+    private StudentImportService studentImportService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private StudentEmailFilter studentEmailFilter;
+
+    private School school;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        school = schoolRepository.save(School.builder()
+                .name("Import University")
+                .address("1 Import Way")
+                .build());
+        studentRepository.save(Student.builder()
+                .firstname("Existing")
+                .lastname("Student")
+                .email("existing@test.com")
+                .school(school)
+                .build());
+        // Seeded behind the services' back, like rows the filter picks up at startup
+        studentEmailFilter.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should report success and failure per row")
+    void shouldReportPerRowOutcome() {
+        List<Supplier<StudentDto>> rows = List.of(
+                () -> student("Alice", "alice@test.com", school.getName()),
+                () -> student("Bob", "existing@test.com", school.getName()),
+                () -> student("Carol", "alice@test.com", school.getName()),
+                () -> student("Dave", "dave@test.com", "Unknown School"),
+                () -> student("", "erin@test.com", school.getName()),
+                () -> {
+                    throw new IllegalArgumentException("Malformed row");
+                });
+
+        BulkImportResultDto result = studentImportService.importStudents(rows.iterator());
+
+        List<BulkImportRowDto.Status> statuses = result.getRows().stream()
+                .map(BulkImportRowDto::getStatus)
+                .toList();
+        assertAll(
+                () -> assertEquals(6, result.getTotal()),
+                () -> assertEquals(1, result.getSucceeded()),
+                () -> assertEquals(5, result.getFailed()),
+                () -> assertEquals(BulkImportRowDto.Status.CREATED, statuses.get(0)),
+                () -> assertNotNull(result.getRows().get(0).getId()),
+                () -> assertTrue(statuses.subList(1, 6).stream().allMatch(s -> s == BulkImportRowDto.Status.FAILED)),
+                () -> assertEquals("Malformed row", result.getRows().get(5).getError()),
+                () -> assertTrue(studentRepository.existsByEmail("alice@test.com")),
+                () -> assertEquals(2, studentRepository.count())
+        );
+    }
+
+    @Test
+    @DisplayName("Should retry a chunk without the rows another writer inserted in the meantime")
+    void shouldRetryChunkWithoutConflictingRows() {
+        // Unknown to the email filter, like a student another instance just inserted
+        studentRepository.save(Student.builder()
+                .firstname("Racing")
+                .lastname("Writer")
+                .email("racer@test.com")
+                .school(school)
+                .build());
+        List<Supplier<StudentDto>> rows = List.of(
+                () -> student("Alice", "alice@test.com", school.getName()),
+                () -> student("Racer", "racer@test.com", school.getName()),
+                () -> student("Bob", "bob@test.com", school.getName()));
+
+        BulkImportResultDto result = studentImportService.importStudents(rows.iterator());
+
+        assertAll(
+                () -> assertEquals(2, result.getSucceeded()),
+                () -> assertEquals(BulkImportRowDto.Status.FAILED, result.getRows().get(1).getStatus()),
+                () -> assertEquals("Student with email racer@test.com already exists", result.getRows().get(1).getError()),
+                () -> assertNotNull(result.getRows().get(0).getId()),
+                () -> assertNotNull(result.getRows().get(2).getId()),
+                () -> assertEquals(4, studentRepository.count())
+        );
+    }
+
+    @Test
+    @DisplayName("Should insert a chunk with a constant number of statements")
+    void shouldBatchInserts() {
+        List<Supplier<StudentDto>> rows = new ArrayList<>();
+        IntStream.range(0, 200).forEach(i ->
+                rows.add(() -> student("Student" + i, "student" + i + "@test.com", school.getName())));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BulkImportResultDto result = studentImportService.importStudents(rows.iterator());
+
+        assertEquals(200, result.getSucceeded());
+        assertEquals(200, statistics.getEntityStatistics(Student.class.getName()).getInsertCount());
+        // school lookup + email check + sequence calls + one statement per JDBC batch of students and outbox events
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                () -> "Expected batched inserts but got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private static StudentDto student(String firstname, String email, String schoolName) {
+        return StudentDto.builder()
+                .firstname(firstname)
+                .lastname("Importer")
+                .email(email)
+                .schoolName(schoolName)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the second-level and natural-id caches through the service layer, making sure
+ * every write path leaves no stale entry behind.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentServiceCachingTest {
+
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private SchoolDto school;
+    private StudentDto student;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        school = schoolService.createSchool(SchoolDto.builder()
+                .name("Cache University")
+                .address("1 Region Road")
+                .build());
+        student = studentService.createStudent(StudentDto.builder()
+                .firstname("John")
+                .lastname("Doe")
+                .email("john.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated id and email lookups without touching the database")
+    void shouldServeRepeatedLookupsFromCache() {
+        studentService.findById(student.getId());
+        studentService.findByEmail(student.getEmail());
+        statistics.clear();
+
+        assertAll(
+                () -> assertTrue(studentService.findById(student.getId()).isPresent()),
+                () -> assertTrue(studentService.findByEmail(student.getEmail()).isPresent()),
+                () -> assertEquals(0, statistics.getPrepareStatementCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should reflect updates in cached id and email lookups")
+    void shouldRefreshCachesOnUpdate() {
+        studentService.findByEmail(student.getEmail());
+
+        studentService.updateStudent(student.getId(), StudentDto.builder()
+                .firstname("Johnny")
+                .lastname("Doe")
+                .email("johnny.doe@test.com")
+                .schoolName(school.getName())
+                .build());
+
+        assertAll(
+                () -> assertTrue(studentService.findByEmail("john.doe@test.com").isEmpty()),
+                () -> assertEquals("Johnny", studentService.findByEmail("johnny.doe@test.com").orElseThrow().getFirstname()),
+                () -> assertEquals("johnny.doe@test.com", studentService.findById(student.getId()).orElseThrow().getEmail())
+        );
+    }
+
+    @Test
+    @DisplayName("Should count and list a school's students from the roster index")
+    void shouldServeRosterFromMemory() {
+        StudentDto other = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Smith")
+                .email("jane.smith@test.com")
+                .schoolName(school.getName())
+                .build());
+        schoolService.findByName(school.getName());
+        statistics.clear();
+
+        assertAll(
+                () -> assertEquals(2, studentService.countStudentsBySchool(school.getId())),
+                () -> assertArrayEquals(new long[]{student.getId(), other.getId()},
+                        studentService.findStudentIdsBySchoolName(school.getName())),
+                () -> assertEquals(0, statistics.getPrepareStatementCount())
+        );
+
+        studentService.deleteByEmail(student.getEmail());
+        assertArrayEquals(new long[]{other.getId()}, studentService.findStudentIdsBySchoolName(school.getName()));
+    }
+
+    @Test
+    @DisplayName("Should keep other students cached when single students are deleted")
+    void shouldKeepOtherStudentsCachedOnSingleDeletes() {
+        StudentDto other = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Smith")
+                .email("jane.smith@test.com")
+                .schoolName(school.getName())
+                .build());
+        StudentDto third = studentService.createStudent(StudentDto.builder()
+                .firstname("Jim")
+                .lastname("Beam")
+                .email("jim.beam@test.com")
+                .schoolName(school.getName())
+                .build());
+        studentService.findById(other.getId());
+        studentService.findByEmail(other.getEmail());
+
+        studentService.deleteByEmail(student.getEmail());
+        studentService.deleteStudent(third.getId());
+        statistics.clear();
+
+        assertAll(
+                () -> assertTrue(studentService.findById(other.getId()).isPresent()),
+                () -> assertTrue(studentService.findByEmail(other.getEmail()).isPresent()),
+                () -> assertEquals(0, statistics.getPrepareStatementCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Should evict cached students on every delete path")
+    void shouldEvictOnDelete() {
+        StudentDto other = studentService.createStudent(StudentDto.builder()
+                .firstname("Jane")
+                .lastname("Smith")
+                .email("jane.smith@test.com")
+                .schoolName(school.getName())
+                .build());
+        studentService.findById(student.getId());
+        studentService.findById(other.getId());
+
+        studentService.deleteByEmail(student.getEmail());
+        assertTrue(studentService.findById(student.getId()).isEmpty());
+        assertTrue(studentService.findByEmail(student.getEmail()).isEmpty());
+
+        schoolService.deleteSchool(school.getId());
+        assertTrue(studentService.findById(other.getId()).isEmpty());
+        assertTrue(studentService.findByEmail(other.getEmail()).isEmpty());
+    }
+}
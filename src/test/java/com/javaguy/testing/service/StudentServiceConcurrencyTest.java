@@ -0,0 +1,162 @@
+package com.javaguy.testing.service;
+
+import com.javaguy.testing.dto.SchoolDto;
+import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.exception.StudentAlreadyExistsException;
+import com.javaguy.testing.models.Student;
+import com.javaguy.testing.repository.SchoolRepository;
+import com.javaguy.testing.repository.StudentRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private SchoolService schoolService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private SchoolRepository schoolRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        schoolRepository.deleteAll();
+        schoolService.createSchool(SchoolDto.builder()
+                .name("Race Condition College")
+                .address("16 Thread Street")
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of many concurrent creates with the same email succeed")
+    void shouldAllowSingleWinnerForConcurrentDuplicateCreates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StudentDto>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return studentService.createStudent(student("same@test.com"));
+            }));
+        }
+
+        start.countDown();
+        int created = 0;
+        int conflicts = 0;
+        for (Future<StudentDto> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(StudentAlreadyExistsException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(THREADS - 1, conflicts);
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should create a student without any lookup query once the school is cached")
+    void shouldCreateWithoutPreCheckQueries() {
+        studentService.createStudent(student("warmup@test.com"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        studentService.createStudent(student("fresh@test.com"));
+
+        assertAll(
+                () -> assertEquals(0, statistics.getQueryExecutionCount()),
+                () -> assertEquals(1, statistics.getEntityStatistics(Student.class.getName()).getInsertCount()),
+                // Student and outbox event insert, each with at most one sequence call
+                () -> assertTrue(statistics.getPrepareStatementCount() <= 4,
+                        () -> "Expected inserts (and at most one sequence call each) but got "
+                                + statistics.getPrepareStatementCount() + " statements")
+        );
+    }
+
+    @Test
+    @DisplayName("Should answer many concurrent identical reads with a single query")
+    void shouldCoalesceConcurrentIdenticalReads() throws Exception {
+        studentService.createStudent(student("reader@test.com"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Counter followers = meterRegistry.counter("singleflight.calls",
+                "operation", "students.findBySchoolName", "role", "follower");
+        double followersBefore = followers.count();
+
+        // Hold every pooled connection so the leading query stalls until all callers have joined it
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        List<Connection> held = new ArrayList<>();
+        for (int i = 0; i < pool.getMaximumPoolSize(); i++) {
+            held.add(pool.getConnection());
+        }
+        statistics.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<StudentDto>>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> studentService.findBySchoolName("Race Condition College")));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (followers.count() - followersBefore < THREADS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        for (Connection connection : held) {
+            connection.close();
+        }
+
+        for (Future<List<StudentDto>> result : results) {
+            assertEquals(1, result.get(30, TimeUnit.SECONDS).size());
+        }
+        executor.shutdown();
+
+        assertAll(
+                () -> assertEquals(THREADS - 1, followers.count() - followersBefore),
+                () -> assertEquals(1, statistics.getQueryExecutionCount()),
+                () -> assertEquals(1, statistics.getPrepareStatementCount())
+        );
+    }
+
+    private static StudentDto student(String email) {
+        return StudentDto.builder()
+                .firstname("Racer")
+                .lastname("Thread")
+                .email(email)
+                .schoolName("Race Condition College")
+                .build();
+    }
+}
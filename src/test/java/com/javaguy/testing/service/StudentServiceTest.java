@@ -1,10 +1,21 @@
 package com.javaguy.testing.service;
 
+import com.javaguy.testing.dto.StudentBatchGetResultDto;
 import com.javaguy.testing.dto.StudentDto;
+import com.javaguy.testing.events.ChangeEventOutbox;
+import com.javaguy.testing.exception.StudentAlreadyExistsException;
+import com.javaguy.testing.exception.StudentModifiedException;
+import com.javaguy.testing.exception.StudentNotFoundException;
 import com.javaguy.testing.mappers.StudentMapper;
+import com.javaguy.testing.models.OutboxEvent.AggregateType;
+import com.javaguy.testing.models.OutboxEvent.EventType;
 import com.javaguy.testing.models.School;
 import com.javaguy.testing.models.Student;
 import com.javaguy.testing.repository.StudentRepository;
+import com.javaguy.testing.search.SchoolRosterIndex;
+import com.javaguy.testing.search.StudentEmailFilter;
+import com.javaguy.testing.search.StudentNameIndex;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,9 +23,17 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +50,14 @@ class StudentServiceTest {
     private StudentMapper studentMapper;
     @Mock
     SchoolService schoolService;
+    @Mock
+    StudentNameIndex studentNameIndex;
+    @Mock
+    SchoolRosterIndex schoolRosterIndex;
+    @Mock
+    StudentEmailFilter studentEmailFilter;
+    @Mock
+    ChangeEventOutbox changeEventOutbox;
 
     @InjectMocks
     private StudentService studentService;
@@ -67,10 +94,9 @@ class StudentServiceTest {
     @Test
     void shouldCreateStudent() {
         // Given - Setup mock behaviors
-        when(studentRepository.existsByEmail("john.doe@test.com")).thenReturn(false);
         when(schoolService.findByName("Test University")).thenReturn(school);
         when(studentMapper.toStudent(studentDto)).thenReturn(student);
-        when(studentRepository.save(any(Student.class))).thenReturn(student);
+        when(studentRepository.saveAndFlush(any(Student.class))).thenReturn(student);
         when(studentMapper.toStudentDto(student)).thenReturn(studentDto);
 
         // When
@@ -84,10 +110,130 @@ class StudentServiceTest {
         assertEquals("Test University", result.getSchoolName());
 
         // Verify interactions - Verify in the order they're called
-        verify(studentRepository).existsByEmail("john.doe@test.com");
         verify(schoolService).findByName("Test University");
         verify(studentMapper).toStudent(studentDto);
-        verify(studentRepository).save(any(Student.class));
+        verify(studentRepository).saveAndFlush(any(Student.class));
+        verify(studentRepository, never()).existsByEmail(any());
         verify(studentMapper).toStudentDto(student);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldTranslateEmailConstraintViolationToAlreadyExists() {
+        when(schoolService.findByName("Test University")).thenReturn(school);
+        when(studentMapper.toStudent(studentDto)).thenReturn(student);
+        when(studentRepository.saveAndFlush(any(Student.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("duplicate", null, "PUBLIC.UK_STUDENTS_EMAIL_INDEX_8")));
+
+        assertThrows(StudentAlreadyExistsException.class, () -> studentService.createStudent(studentDto));
+    }
+
+    @Test
+    void shouldRethrowOtherConstraintViolations() {
+        when(schoolService.findByName("Test University")).thenReturn(school);
+        when(studentMapper.toStudent(studentDto)).thenReturn(student);
+        when(studentRepository.saveAndFlush(any(Student.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("fk", null, "FK_STUDENTS_SCHOOL")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> studentService.createStudent(studentDto));
+    }
+
+    @Test
+    void shouldDeleteStudentThroughTheEntity() {
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+
+        studentService.deleteStudent(1L);
+
+        verify(studentRepository).delete(student);
+        verify(schoolRosterIndex).remove(1L);
+        verify(changeEventOutbox).append(AggregateType.STUDENT, 1L, null, EventType.DELETED);
+    }
+
+    @Test
+    void shouldDeleteStudentByEmailWithItsIdInTheEvent() {
+        when(studentEmailFilter.mightContain("john.doe@test.com")).thenReturn(true);
+        when(studentRepository.findCachedByEmail("john.doe@test.com")).thenReturn(Optional.of(student));
+
+        studentService.deleteByEmail("john.doe@test.com");
+
+        verify(studentRepository).delete(student);
+        verify(schoolRosterIndex).remove(1L);
+        verify(changeEventOutbox).append(AggregateType.STUDENT, 1L, "john.doe@test.com", EventType.DELETED);
+    }
+
+    @Test
+    void shouldThrowWhenNoStudentWasDeleted() {
+        when(studentRepository.findById(42L)).thenReturn(Optional.empty());
+        when(studentRepository.findCachedByEmail("missing@test.com")).thenReturn(Optional.empty());
+        when(studentEmailFilter.mightContain("missing@test.com")).thenReturn(true);
+
+        assertAll(
+                () -> assertThrows(StudentNotFoundException.class, () -> studentService.deleteStudent(42L)),
+                () -> assertThrows(StudentNotFoundException.class, () -> studentService.deleteByEmail("missing@test.com"))
+        );
+        verify(studentRepository, never()).delete(any());
+        verify(changeEventOutbox, never()).append(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldAnswerEmailsRuledOutByTheFilterWithoutQuerying() {
+        when(studentEmailFilter.mightContain("nobody@test.com")).thenReturn(false);
+
+        assertAll(
+                () -> assertFalse(studentService.existsByEmail("nobody@test.com")),
+                () -> assertTrue(studentService.findByEmail("nobody@test.com").isEmpty()),
+                () -> assertThrows(StudentNotFoundException.class, () -> studentService.deleteByEmail("nobody@test.com"))
+        );
+        verify(studentRepository, never()).existsByEmail(any());
+        verify(studentRepository, never()).findCachedByEmail(any());
+        verify(studentRepository, never()).delete(any());
+    }
+
+    @Test
+    void shouldRejectUpdateOfStaleVersion() {
+        student.setVersion(3L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+
+        assertThrows(StudentModifiedException.class, () -> studentService.updateStudent(1L, studentDto, 2L));
+        verify(studentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldBatchGetInRequestOrderAndReportMisses() {
+        Student other = Student.builder()
+                .id(2L)
+                .firstname("Jane")
+                .lastname("Smith")
+                .email("jane.smith@test.com")
+                .school(school)
+                .build();
+        StudentDto otherDto = StudentDto.builder().id(2L).email(other.getEmail()).build();
+        StudentDto studentDto = StudentDto.builder().id(1L).email(student.getEmail()).build();
+
+        when(studentRepository.findAllWithSchoolByIdIn(ArgumentMatchers.<Collection<Long>>any()))
+                .thenReturn(List.of(student, other));
+        when(studentRepository.findAllWithSchoolByEmailIn(ArgumentMatchers.<Collection<String>>any()))
+                .thenReturn(List.of(other));
+        when(studentMapper.toStudentDto(student)).thenReturn(studentDto);
+        when(studentMapper.toStudentDto(other)).thenReturn(otherDto);
+
+        StudentBatchGetResultDto result = studentService.batchGet(
+                Arrays.asList(2L, 99L, 1L, 2L, null),
+                List.of("missing@test.com", "jane.smith@test.com"));
+
+        assertAll(
+                () -> assertEquals(List.of(otherDto, studentDto, otherDto), result.getStudents()),
+                () -> assertEquals(List.of(99L), result.getMissingIds()),
+                () -> assertEquals(List.of("missing@test.com"), result.getMissingEmails())
+        );
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() {
+        List<Long> ids = LongStream.rangeClosed(1, StudentService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> studentService.batchGet(ids, null));
+        verify(studentRepository, never()).findAllWithSchoolByIdIn(any());
+    }
+}